@@ -4,6 +4,7 @@ plugins {
     java
     application
     id("com.github.johnrengelman.shadow") version "8.1.1"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "pl.edu.agh"
@@ -13,6 +14,13 @@ repositories {
     mavenCentral()
 }
 
+// The server runs requests on virtual threads, which need JDK 21.
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(21))
+    }
+}
+
 val jacksonVersion = "2.15.2"
 
 dependencies {
@@ -28,6 +36,15 @@ tasks.test {
     useJUnitPlatform()
 }
 
+jmh {
+    jmhVersion.set("1.37")
+    profilers.add("gc")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+}
+
 application {
     mainClass.set("pl.edu.agh.Main")
 }
@@ -44,3 +61,4 @@ tasks.named<ShadowJar>("shadowJar") {
 // Usage:
 // 1. ./gradlew shadowJar
 // 3. java -jar app.jar <orders.json> <paymentmethods.json>
+// Benchmarks: ./gradlew jmh (results in build/results/jmh, allocation rates from the gc profiler)
@@ -0,0 +1,131 @@
+package pl.edu.agh.algorithm;
+
+import pl.edu.agh.benchmark.SyntheticData;
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.PaymentMethod;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Lives in the algorithm package so that the individual optimizer phases can be measured in isolation.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OptimizerPhasesBenchmark {
+
+    @Param({"10000", "100000"})
+    public int orderCount;
+
+    @Param({"5", "100"})
+    public int methodCount;
+
+    @Param({"0.1", "0.5"})
+    public double promotionDensity;
+
+    private List<Order> orders;
+    private List<PaymentMethod> methods;
+    private MethodRegistry registry;
+    private FixedPointProblem problem;
+    private OptionBuffer options;
+    private long[] keys;
+    private int[] ranking;
+    private long[] remainingAfterAssign;
+    private long[] toPay;
+
+    @Setup(Level.Trial)
+    public void generateData() throws Exception {
+        orders = SyntheticData.orders(orderCount, methodCount, promotionDensity, 1L);
+        methods = SyntheticData.methods(methodCount, orderCount, 2L);
+        registry = new MethodRegistry(methods);
+        problem = FixedPointProblem.of(orders, registry.newLedger());
+        options = FixedPointPaymentOptimizer.generate(problem, 0, problem.orderCount);
+        keys = options.densityKeys();
+        ranking = DensityRanking.rankDescending(keys, keys.length);
+        remainingAfterAssign = problem.limit.clone();
+        Assignment assignment = FixedPointPaymentOptimizer.assign(problem, options, ranking, remainingAfterAssign);
+        toPay = FixedPointPaymentOptimizer.settle(problem, assignment);
+    }
+
+    @Benchmark
+    public List<AssignmentOption> optionGenerationBigDecimal() {
+        return new GreedyPaymentOptimizer().generateOptions(orders, 0, orders.size(), registry);
+    }
+
+    @Benchmark
+    public OptionBuffer optionGenerationFixedPoint() {
+        return FixedPointPaymentOptimizer.generate(problem, 0, problem.orderCount);
+    }
+
+    @Benchmark
+    public long[] densityKeys() {
+        return options.densityKeys();
+    }
+
+    @Benchmark
+    public int[] densitySort() {
+        return DensityRanking.rankDescending(keys, keys.length);
+    }
+
+    @Benchmark
+    public Assignment greedyAssignment() {
+        return FixedPointPaymentOptimizer.assign(problem, options, ranking, problem.limit.clone());
+    }
+
+    @Benchmark
+    public long[] distributePaymentsFixedPoint() {
+        long[] remaining = remainingAfterAssign.clone();
+        FixedPointPaymentOptimizer.distribute(problem, toPay.clone(), remaining);
+        return remaining;
+    }
+
+    @Benchmark
+    public BigDecimal distributePaymentsBigDecimal(FreshMethods fresh) {
+        int[] work = new GreedyPaymentOptimizer().unpaidSlots(fresh.due, fresh.due.length);
+        int unpaid = work.length;
+        for (PaymentMethod method : fresh.methods) {
+            unpaid = GreedyPaymentOptimizer.payFrom(method, work, unpaid, fresh.due);
+        }
+        return fresh.methods.get(0).getRemaining();
+    }
+
+    @Benchmark
+    public List<PaymentMethod> endToEndBigDecimal(FreshMethods fresh) {
+        return new GreedyPaymentOptimizer().optimizePayments(orders, fresh.methods);
+    }
+
+    @Benchmark
+    public long[] endToEndFixedPoint() {
+        return new FixedPointPaymentOptimizer().optimize(orders, registry);
+    }
+
+    // PaymentMethod limits are consumed by the BigDecimal path, so every invocation gets its own copies.
+    @State(Scope.Thread)
+    public static class FreshMethods {
+        List<PaymentMethod> methods;
+        BigDecimal[] due;
+
+        @Setup(Level.Invocation)
+        public void copy(OptimizerPhasesBenchmark data) throws Exception {
+            methods = new ArrayList<>(data.methods.size());
+            for (PaymentMethod m : data.methods) {
+                methods.add(new PaymentMethod(m.getId(), m.getDiscount(), m.getLimit()));
+            }
+            due = new BigDecimal[data.orders.size()];
+            for (int i = 0; i < due.length; i++) {
+                due[i] = data.orders.get(i).getValue();
+            }
+        }
+    }
+}
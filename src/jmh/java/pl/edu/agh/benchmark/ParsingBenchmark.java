@@ -0,0 +1,84 @@
+package pl.edu.agh.benchmark;
+
+import pl.edu.agh.factory.OrderFactory;
+import pl.edu.agh.factory.OrderSnapshot;
+import pl.edu.agh.factory.PaymentMethodFactory;
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.PaymentMethod;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParsingBenchmark {
+
+    @Param({"10000", "100000"})
+    public int orderCount;
+
+    @Param({"5", "100"})
+    public int methodCount;
+
+    @Param({"0.3"})
+    public double promotionDensity;
+
+    private Path ordersFile;
+    private Path methodsFile;
+    private Path snapshotFile;
+
+    @Setup(Level.Trial)
+    public void writeFiles() throws Exception {
+        ordersFile = Files.createTempFile("orders", ".json");
+        methodsFile = Files.createTempFile("paymentmethods", ".json");
+        SyntheticData.writeOrders(ordersFile, SyntheticData.orders(orderCount, methodCount, promotionDensity, 1L));
+        SyntheticData.writeMethods(methodsFile, SyntheticData.methods(methodCount, orderCount, 2L));
+        snapshotFile = Files.createTempFile("orders", ".bin");
+        OrderSnapshot.write(OrderFactory.fromJson(ordersFile), snapshotFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws Exception {
+        Files.deleteIfExists(ordersFile);
+        Files.deleteIfExists(methodsFile);
+        Files.deleteIfExists(snapshotFile);
+    }
+
+    @Benchmark
+    public List<Order> orderFactoryFromJson() throws Exception {
+        return OrderFactory.fromJson(ordersFile);
+    }
+
+    @Benchmark
+    public long orderSnapshotOpenAndScan() throws Exception {
+        OrderSnapshot snapshot = OrderSnapshot.open(snapshotFile);
+        long total = 0;
+        for (int i = 0; i < snapshot.size(); i++) {
+            total += snapshot.getValueMinor(i) + snapshot.getPromotionCount(i);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public List<Order> orderSnapshotToOrders() throws Exception {
+        return OrderSnapshot.open(snapshotFile).toOrders();
+    }
+
+    @Benchmark
+    public List<PaymentMethod> paymentMethodFactoryFromJson() throws Exception {
+        return PaymentMethodFactory.fromJson(methodsFile);
+    }
+}
@@ -0,0 +1,89 @@
+package pl.edu.agh.benchmark;
+
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.PaymentMethod;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Reproducible orders and payment method catalogs for benchmarks.
+// Catalogs always contain PUNKTY plus (methodCount - 1) cards named CARD1..CARDn; each order lists every card
+// as a promotion with probability promotionDensity.
+public final class SyntheticData {
+    private SyntheticData() {
+    }
+
+    public static List<PaymentMethod> methods(int methodCount, int orderCount, long seed) throws WarningException {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<PaymentMethod> methods = new ArrayList<>(methodCount);
+        // limits scale with the batch so that roughly half of the demand fits into promotions
+        long averageShare = Math.max(1, orderCount * 250L / Math.max(1, methodCount));
+        methods.add(new PaymentMethod("PUNKTY", BigDecimal.valueOf(15), BigDecimal.valueOf(averageShare)));
+        for (int j = 1; j < methodCount; j++) {
+            BigDecimal discount = BigDecimal.valueOf(1 + random.nextInt(20));
+            BigDecimal limit = BigDecimal.valueOf(averageShare / 2 + random.nextLong(averageShare));
+            methods.add(new PaymentMethod("CARD" + j, discount, limit));
+        }
+        return methods;
+    }
+
+    public static List<Order> orders(int orderCount, int methodCount, double promotionDensity, long seed)
+            throws WarningException {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Order> orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            List<String> promotions = new ArrayList<>();
+            for (int j = 1; j < methodCount; j++) {
+                if (random.nextDouble() < promotionDensity) {
+                    promotions.add("CARD" + j);
+                }
+            }
+            BigDecimal value = BigDecimal.valueOf(100 + random.nextInt(100_000), 2);
+            orders.add(new Order("ORDER" + i, value, promotions.isEmpty() ? null : promotions));
+        }
+        return orders;
+    }
+
+    public static void writeOrders(Path path, List<Order> orders) throws IOException {
+        try (JsonGenerator json = new JsonFactory().createGenerator(path.toFile(), JsonEncoding.UTF8)) {
+            json.writeStartArray();
+            for (Order order : orders) {
+                json.writeStartObject();
+                json.writeStringField("id", order.getId());
+                json.writeStringField("value", order.getValue().toPlainString());
+                json.writeArrayFieldStart("promotions");
+                if (order.getPromotions() != null) {
+                    for (String promo : order.getPromotions()) {
+                        json.writeString(promo);
+                    }
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        }
+    }
+
+    public static void writeMethods(Path path, List<PaymentMethod> methods) throws IOException {
+        try (JsonGenerator json = new JsonFactory().createGenerator(path.toFile(), JsonEncoding.UTF8)) {
+            json.writeStartArray();
+            for (PaymentMethod method : methods) {
+                json.writeStartObject();
+                json.writeStringField("id", method.getId());
+                json.writeStringField("discount", method.getDiscount().toPlainString());
+                json.writeStringField("limit", method.getLimit().toPlainString());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        }
+    }
+}
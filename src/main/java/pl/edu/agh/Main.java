@@ -1,36 +1,138 @@
 package pl.edu.agh;
 
+import pl.edu.agh.batch.BatchJob;
+import pl.edu.agh.batch.BatchResult;
+import pl.edu.agh.batch.BatchRunner;
+import pl.edu.agh.factory.AllocationWriter;
 import pl.edu.agh.factory.OrderFactory;
+import pl.edu.agh.factory.OrderSnapshot;
+import pl.edu.agh.factory.ParallelOrderLoader;
 import pl.edu.agh.factory.PaymentMethodFactory;
+import pl.edu.agh.algorithm.AllocationPolicy;
+import pl.edu.agh.algorithm.AllocationResult;
+import pl.edu.agh.algorithm.AnytimePaymentOptimizer;
+import pl.edu.agh.algorithm.BranchAndBoundPaymentOptimizer;
+import pl.edu.agh.algorithm.BudgetLedger;
+import pl.edu.agh.algorithm.ComponentPaymentOptimizer;
+import pl.edu.agh.algorithm.FixedPoint;
+import pl.edu.agh.algorithm.FixedPointPaymentOptimizer;
 import pl.edu.agh.algorithm.GreedyPaymentOptimizer;
+import pl.edu.agh.algorithm.LazyGreedyPaymentOptimizer;
+import pl.edu.agh.algorithm.MethodRegistry;
+import pl.edu.agh.algorithm.MinorUnitOptimizer;
+import pl.edu.agh.algorithm.OptionCache;
+import pl.edu.agh.algorithm.PointsSplit;
+import pl.edu.agh.algorithm.ScarcityPaymentOptimizer;
+import pl.edu.agh.metrics.JmxMetricsSink;
+import pl.edu.agh.metrics.JsonMetricsSink;
+import pl.edu.agh.metrics.MetricsRecorder;
+import pl.edu.agh.metrics.MetricsSink;
+import pl.edu.agh.metrics.Phase;
 import pl.edu.agh.model.Order;
 import pl.edu.agh.model.PaymentMethod;
+import pl.edu.agh.server.OptimizationServer;
 import pl.edu.agh.exception.ErrorException;
 import pl.edu.agh.exception.WarningException;
 
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Logger;
 
 public class Main {
     private static final Logger logger = Logger.getLogger(Main.class.getName());
 
+    private static final String USAGE = "Usage: java -jar app.jar <orders.json> <paymentmethods.json> [--engine=greedy|lazy|exact|components|scarcity|anytime]"
+            + " [--split-points] [--metrics=<metrics.json>] [--points-split=grid:<step>|minimal]\n"
+            + "       [--allocations=<allocations.jsonl|allocations.csv>] [--threads=N] [--budget-ms=N]\n"
+            + "       java -jar app.jar --serve <paymentmethods.json> [--port=8080] [--engine=greedy|lazy|exact|components|scarcity|anytime] [--jmx]"
+            + " [--split-points] [--cache=<orders>] [--threads=N] [--budget-ms=N]\n"
+            + "       java -jar app.jar --convert <orders.json> <orders.bin>\n"
+            + "       java -jar app.jar --batch <directory|manifest.txt> <outputdir> [--threads=N] [--engine=greedy|lazy|exact|components|scarcity|anytime]"
+            + " [--split-points] [--budget-ms=N]\n"
+            + "       [--metrics=<metrics.json>] [--points-split=grid:<step>|minimal]";
+
     public static void main(String[] args) {
+        if (args.length >= 1 && "--serve".equals(args[0])) {
+            serve(args);
+            return;
+        }
+        if (args.length >= 1 && "--convert".equals(args[0])) {
+            convert(args);
+            return;
+        }
+        if (args.length >= 1 && "--batch".equals(args[0])) {
+            batch(args);
+            return;
+        }
         if (args.length < 2) {
-            logger.severe("Usage: java -jar app.jar <orders.json> <paymentmethods.json>");
+            logger.severe(USAGE);
             System.exit(1);
         }
+        String engine = "greedy";
+        boolean splitPoints = false;
+        MetricsSink metricsSink = null;
+        PointsSplit split = PointsSplit.DEFAULT;
+        Path allocationsPath = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Duration budget = null;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].startsWith("--engine=")) {
+                engine = args[i].substring("--engine=".length());
+            } else if ("--split-points".equals(args[i])) {
+                splitPoints = true;
+            } else if (args[i].startsWith("--threads=")) {
+                threads = intArgument(args[i], "--threads=", 1, "thread count");
+            } else if (args[i].startsWith("--budget-ms=")) {
+                budget = Duration.ofMillis(intArgument(args[i], "--budget-ms=", 0, "time budget"));
+            } else if (args[i].startsWith("--metrics=")) {
+                metricsSink = new JsonMetricsSink(Paths.get(args[i].substring("--metrics=".length())));
+            } else if (args[i].startsWith("--allocations=")) {
+                allocationsPath = Paths.get(args[i].substring("--allocations=".length()));
+            } else if (args[i].startsWith("--points-split=")) {
+                try {
+                    split = PointsSplit.parse(args[i].substring("--points-split=".length()));
+                } catch (WarningException we) {
+                    logger.severe(we.getMessage());
+                    System.exit(1);
+                    return;
+                }
+            } else {
+                logger.warning("Ignoring unknown argument: " + args[i]);
+            }
+        }
+        ExecutorService executor = executor(threads);
+        MinorUnitOptimizer fixedOptimizer = createOptimizer(engine, split, splitPoints, null, executor, threads, budget);
+        if (fixedOptimizer == null) {
+            System.exit(1);
+            return;
+        }
+        if (allocationsPath != null && !(fixedOptimizer instanceof FixedPointPaymentOptimizer)) {
+            logger.severe("--allocations is only supported with --engine=greedy");
+            System.exit(1);
+            return;
+        }
         Path ordersPath = Paths.get(args[0]);
         Path methodsPath = Paths.get(args[1]);
+        MetricsRecorder metrics = metricsSink == null ? MetricsRecorder.DISABLED : new MetricsRecorder();
         List<Order> orders;
         List<PaymentMethod> methods;
+        long start = metrics.start();
         try {
-            orders = OrderFactory.fromJson(ordersPath);
+            orders = OrderSnapshot.isSnapshot(ordersPath)
+                    ? OrderFactory.fromSnapshot(ordersPath)
+                    : ParallelOrderLoader.fromJson(ordersPath, executor);
             methods = PaymentMethodFactory.fromJson(methodsPath);
+            metrics.stop(Phase.PARSE, start);
         } catch (WarningException we) {
             logger.warning("Configuration warning: " + we.getMessage());
             System.exit(2);
@@ -39,11 +141,60 @@ public class Main {
             logger.severe("I/O error: " + ioe.getMessage());
             System.exit(3);
             return;
+        } catch (ErrorException ee) {
+            logger.severe("Critical processing error: " + ee.getMessage());
+            System.exit(4);
+            return;
         }
-        GreedyPaymentOptimizer optimizer = new GreedyPaymentOptimizer();
-        List<PaymentMethod> result;
+        MethodRegistry registry = new MethodRegistry(methods);
+        if (MinorUnitOptimizer.supports(orders, registry)) {
+            long[] used;
+            try {
+                BudgetLedger ledger = registry.newLedger();
+                if (allocationsPath != null) {
+                    AllocationResult allocations = ((FixedPointPaymentOptimizer) fixedOptimizer)
+                            .allocate(orders, ledger, metrics);
+                    try (AllocationWriter writer = AllocationWriter.open(allocationsPath,
+                            AllocationWriter.formatOf(allocationsPath))) {
+                        allocations.forEach(writer);
+                    }
+                } else {
+                    fixedOptimizer.optimize(orders, ledger, metrics);
+                }
+                used = ledger.getUsed();
+                if (metrics.isEnabled()) {
+                    metricsSink.record(metrics.finish(registry, used));
+                }
+            } catch (IOException ioe) {
+                logger.severe("I/O error: " + ioe.getMessage());
+                System.exit(3);
+                return;
+            } catch (ErrorException ee) {
+                logger.severe("Critical processing error: " + ee.getMessage());
+                System.exit(4);
+                return;
+            }
+            for (int i = 0; i < registry.size(); i++) {
+                if (used[i] > 0) {
+                    System.out.println(registry.getId(i) + " " + FixedPoint.toDecimal(used[i]));
+                }
+            }
+            return;
+        }
+        if (!"greedy".equals(engine)) {
+            logger.warning("Amounts with more than two decimal places; falling back to the greedy optimizer");
+        }
+        if (allocationsPath != null) {
+            logger.warning("Amounts with more than two decimal places; per-order allocations are not written");
+        }
+
+        GreedyPaymentOptimizer optimizer = new GreedyPaymentOptimizer(null, AllocationPolicy.CATALOG_ORDER, split);
+        List<PaymentMethod> result = methods;
         try {
-            result = optimizer.optimizePayments(orders, methods);
+            optimizer.optimize(orders, registry, metrics);
+            if (metrics.isEnabled()) {
+                metricsSink.record(metrics.finish(methods));
+            }
         } catch (ErrorException ee) {
             logger.severe("Critical processing error: " + ee.getMessage());
             System.exit(4);
@@ -56,4 +207,229 @@ public class Main {
             }
         }
     }
+
+    // executor runs option generation, components and anytime workers; null keeps them on the calling thread.
+    // budget is the time limit of the anytime and exact engines, null for their defaults. splitPoints lets the
+    // components engine divide the points limit between components, which trades discount for parallelism.
+    // cache, when not null, is only supported by the greedy engine; null is returned for any other.
+    private static MinorUnitOptimizer createOptimizer(String engine, PointsSplit split, boolean splitPoints,
+                                                      OptionCache cache, ExecutorService executor, int threads,
+                                                      Duration budget) {
+        if (cache != null && !"greedy".equals(engine)) {
+            logger.severe("--cache is only supported with --engine=greedy");
+            return null;
+        }
+        if (budget != null && !"anytime".equals(engine) && !"exact".equals(engine)) {
+            logger.warning("--budget-ms only applies to the anytime and exact engines");
+        }
+        if (splitPoints && !"components".equals(engine)) {
+            logger.warning("--split-points only applies to the components engine");
+        }
+        switch (engine) {
+            case "greedy":
+                return new FixedPointPaymentOptimizer(executor, AllocationPolicy.CATALOG_ORDER, split, cache);
+            case "lazy":
+                return new LazyGreedyPaymentOptimizer(AllocationPolicy.CATALOG_ORDER, split);
+            case "exact":
+                return budget == null ? new BranchAndBoundPaymentOptimizer() : new BranchAndBoundPaymentOptimizer(budget);
+            case "components":
+                return new ComponentPaymentOptimizer(executor, splitPoints, AllocationPolicy.CATALOG_ORDER, split);
+            case "scarcity":
+                return new ScarcityPaymentOptimizer(ScarcityPaymentOptimizer.DEFAULT_PASSES, AllocationPolicy.CATALOG_ORDER, split);
+            case "anytime":
+                return new AnytimePaymentOptimizer(budget == null ? AnytimePaymentOptimizer.DEFAULT_BUDGET : budget,
+                        executor, threads, AllocationPolicy.CATALOG_ORDER, split);
+            default:
+                logger.severe("Unknown engine '" + engine + "'; expected greedy, lazy, exact, components, scarcity or anytime");
+                return null;
+        }
+    }
+
+    // Worker pool for one process; its threads are daemons, so it needs no shutdown before exit.
+    private static ExecutorService executor(int threads) {
+        return threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+
+    // Integer value of a --name=N argument; exits on values that do not parse or are below min.
+    private static int intArgument(String arg, String prefix, int min, String what) {
+        int value;
+        try {
+            value = Integer.parseInt(arg.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            value = min - 1;
+        }
+        if (value < min) {
+            logger.severe("Invalid " + what + ": " + arg);
+            System.exit(1);
+        }
+        return value;
+    }
+
+    private static void convert(String[] args) {
+        if (args.length != 3) {
+            logger.severe(USAGE);
+            System.exit(1);
+        }
+        try {
+            OrderSnapshot.write(OrderFactory.fromJson(Paths.get(args[1])), Paths.get(args[2]));
+        } catch (WarningException we) {
+            logger.warning("Configuration warning: " + we.getMessage());
+            System.exit(2);
+        } catch (IOException ioe) {
+            logger.severe("I/O error: " + ioe.getMessage());
+            System.exit(3);
+        } catch (ErrorException ee) {
+            logger.severe("Critical processing error: " + ee.getMessage());
+            System.exit(4);
+        }
+    }
+
+    private static void batch(String[] args) {
+        if (args.length < 3) {
+            logger.severe(USAGE);
+            System.exit(1);
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        String engine = "greedy";
+        boolean splitPoints = false;
+        Duration budget = null;
+        PointsSplit split = PointsSplit.DEFAULT;
+        MetricsSink metricsSink = null;
+        for (int i = 3; i < args.length; i++) {
+            if (args[i].startsWith("--threads=")) {
+                threads = intArgument(args[i], "--threads=", 1, "thread count");
+            } else if (args[i].startsWith("--engine=")) {
+                engine = args[i].substring("--engine=".length());
+            } else if ("--split-points".equals(args[i])) {
+                splitPoints = true;
+            } else if (args[i].startsWith("--budget-ms=")) {
+                budget = Duration.ofMillis(intArgument(args[i], "--budget-ms=", 0, "time budget"));
+            } else if (args[i].startsWith("--metrics=")) {
+                metricsSink = new JsonMetricsSink(Paths.get(args[i].substring("--metrics=".length())));
+            } else if (args[i].startsWith("--points-split=")) {
+                try {
+                    split = PointsSplit.parse(args[i].substring("--points-split=".length()));
+                } catch (WarningException we) {
+                    logger.severe(we.getMessage());
+                    System.exit(1);
+                    return;
+                }
+            } else {
+                logger.warning("Ignoring unknown argument: " + args[i]);
+            }
+        }
+        // jobs already run on the batch threads, so each optimizer keeps to its job's thread
+        MinorUnitOptimizer optimizer = createOptimizer(engine, split, splitPoints, null, null, 1, budget);
+        if (optimizer == null) {
+            System.exit(1);
+            return;
+        }
+        Path input = Paths.get(args[1]);
+        Path outputDir = Paths.get(args[2]);
+        List<BatchResult> results;
+        try {
+            List<BatchJob> jobs = Files.isDirectory(input)
+                    ? BatchJob.fromDirectory(input, outputDir)
+                    : BatchJob.fromManifest(input, outputDir);
+            results = new BatchRunner(threads, optimizer, split, metricsSink).run(jobs);
+        } catch (WarningException we) {
+            logger.warning("Configuration warning: " + we.getMessage());
+            System.exit(2);
+            return;
+        } catch (IOException ioe) {
+            logger.severe("I/O error: " + ioe.getMessage());
+            System.exit(3);
+            return;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            logger.severe("Batch interrupted");
+            System.exit(4);
+            return;
+        }
+        long failed = results.stream().filter(r -> r == null || !r.isSuccess()).count();
+        logger.info("Batch finished: " + (results.size() - failed) + " succeeded, " + failed + " failed");
+        if (failed > 0) {
+            System.exit(2);
+        }
+    }
+
+    private static void serve(String[] args) {
+        if (args.length < 2) {
+            logger.severe(USAGE);
+            System.exit(1);
+        }
+        int port = 8080;
+        String engine = "greedy";
+        boolean splitPoints = false;
+        boolean jmx = false;
+        int cacheOrders = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Duration budget = null;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].startsWith("--port=")) {
+                try {
+                    port = Integer.parseInt(args[i].substring("--port=".length()));
+                } catch (NumberFormatException e) {
+                    logger.severe("Invalid port: " + args[i]);
+                    System.exit(1);
+                }
+            } else if (args[i].startsWith("--engine=")) {
+                engine = args[i].substring("--engine=".length());
+            } else if ("--split-points".equals(args[i])) {
+                splitPoints = true;
+            } else if ("--jmx".equals(args[i])) {
+                jmx = true;
+            } else if (args[i].startsWith("--threads=")) {
+                threads = intArgument(args[i], "--threads=", 1, "thread count");
+            } else if (args[i].startsWith("--budget-ms=")) {
+                budget = Duration.ofMillis(intArgument(args[i], "--budget-ms=", 0, "time budget"));
+            } else if (args[i].startsWith("--cache=")) {
+                try {
+                    cacheOrders = Integer.parseInt(args[i].substring("--cache=".length()));
+                } catch (NumberFormatException e) {
+                    cacheOrders = -1;
+                }
+                if (cacheOrders < 1) {
+                    logger.severe("Invalid cache size: " + args[i]);
+                    System.exit(1);
+                }
+            } else {
+                logger.warning("Ignoring unknown argument: " + args[i]);
+            }
+        }
+        // repeated requests on the one catalog reuse the options of orders they share
+        OptionCache cache = cacheOrders > 0 ? new OptionCache(cacheOrders) : null;
+        MinorUnitOptimizer optimizer = createOptimizer(engine, PointsSplit.DEFAULT, splitPoints, cache, executor(threads),
+                threads, budget);
+        if (optimizer == null) {
+            System.exit(1);
+            return;
+        }
+        List<PaymentMethod> methods;
+        try {
+            methods = PaymentMethodFactory.fromJson(Paths.get(args[1]));
+        } catch (WarningException we) {
+            logger.warning("Configuration warning: " + we.getMessage());
+            System.exit(2);
+            return;
+        } catch (IOException ioe) {
+            logger.severe("I/O error: " + ioe.getMessage());
+            System.exit(3);
+            return;
+        }
+        JmxMetricsSink metricsSink = null;
+        if (jmx) {
+            metricsSink = new JmxMetricsSink();
+            metricsSink.register();
+        }
+        OptimizationServer server = new OptimizationServer(methods, optimizer, metricsSink);
+        try {
+            server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        } catch (IOException ioe) {
+            logger.severe("Cannot start server: " + ioe.getMessage());
+            System.exit(3);
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1)));
+    }
 }
@@ -0,0 +1,46 @@
+package pl.edu.agh.algorithm;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Comparator;
+
+// Decides how amounts still due after the option assignment are spread over the payment methods.
+// Points always pay first, as in the original greedy; a policy orders the other methods and the unpaid orders.
+@FunctionalInterface
+public interface AllocationPolicy {
+    // Today's behaviour: cards in catalog order, orders in list order.
+    AllocationPolicy CATALOG_ORDER = (registry, remaining) -> cardsInCatalogOrder(registry);
+
+    // Cards with the most limit left pay first.
+    AllocationPolicy LARGEST_LIMIT_FIRST = (registry, remaining) -> {
+        Integer[] cards = Arrays.stream(cardsInCatalogOrder(registry)).boxed().toArray(Integer[]::new);
+        Arrays.sort(cards, Comparator.comparing((Integer m) -> remaining[m]).reversed());
+        return Arrays.stream(cards).mapToInt(Integer::intValue).toArray();
+    };
+
+    // Orders with the largest amount left are served first by every method, points included.
+    AllocationPolicy LARGEST_DUE_FIRST = new AllocationPolicy() {
+        @Override
+        public int[] cardOrder(MethodRegistry registry, BigDecimal[] remaining) {
+            return cardsInCatalogOrder(registry);
+        }
+
+        @Override
+        public boolean largestDueFirst() { return true; }
+    };
+
+    // Registry indices of the methods other than points, in paying order; remaining is indexed like the registry.
+    int[] cardOrder(MethodRegistry registry, BigDecimal[] remaining);
+
+    default boolean largestDueFirst() { return false; }
+
+    static int[] cardsInCatalogOrder(MethodRegistry registry) {
+        int[] cards = new int[registry.size()];
+        int count = 0;
+        for (int m = 0; m < registry.size(); m++) {
+            if (MethodRegistry.POINTS_ID.equals(registry.getId(m))) continue;
+            cards[count++] = m;
+        }
+        return Arrays.copyOf(cards, count);
+    }
+}
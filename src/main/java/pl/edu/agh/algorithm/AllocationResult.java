@@ -0,0 +1,86 @@
+package pl.edu.agh.algorithm;
+
+import pl.edu.agh.exception.ErrorException;
+import pl.edu.agh.model.Allocation;
+import pl.edu.agh.model.Order;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// What each order paid with each method in one run, kept as primitive columns: the chosen option per order slot
+// plus the remainder payments grouped by slot. Rows are produced on demand, so a run over millions of orders
+// holds a few arrays rather than one object per row until the rows are written out.
+// Orders sharing an id share a slot and get one set of rows, as in the optimizers.
+public final class AllocationResult {
+    private final MethodRegistry registry;
+    private final String[] orderIds;
+    private final Assignment assignment;
+    private final int[] paymentStart;
+    private final int[] paymentMethod;
+    private final long[] paymentAmount;
+
+    AllocationResult(List<Order> orders, FixedPointProblem problem, Assignment assignment, PaymentLog log) {
+        this.registry = problem.registry;
+        this.assignment = assignment;
+        int slots = problem.slotCount;
+        this.orderIds = new String[slots];
+        for (int o = 0; o < problem.orderCount; o++) {
+            int s = problem.slot[o];
+            if (orderIds[s] == null) orderIds[s] = orders.get(o).getId();
+        }
+
+        // counting sort by slot keeps each slot's payments in the order they were made
+        this.paymentStart = new int[slots + 1];
+        for (int i = 0; i < log.size; i++) paymentStart[log.slot[i] + 1]++;
+        for (int s = 0; s < slots; s++) paymentStart[s + 1] += paymentStart[s];
+        this.paymentMethod = new int[log.size];
+        this.paymentAmount = new long[log.size];
+        int[] next = new int[slots];
+        for (int i = 0; i < log.size; i++) {
+            int s = log.slot[i];
+            int at = paymentStart[s] + next[s]++;
+            paymentMethod[at] = log.method[i];
+            paymentAmount[at] = log.amount[i];
+        }
+    }
+
+    public int getOrderCount() { return orderIds.length; }
+
+    public String getOrderId(int slot) { return orderIds[slot]; }
+
+    public List<Allocation> getAllocations(int slot) {
+        List<Allocation> allocations = new ArrayList<>(2);
+        try {
+            emit(slot, (orderId, methodId, amount) -> allocations.add(new Allocation(orderId, methodId, amount)));
+        } catch (IOException e) {
+            throw new ErrorException("Collecting allocations failed", e);
+        }
+        return allocations;
+    }
+
+    // Rows for every order in slot order; the chosen option's method comes first, then remainder payments in the
+    // order they were made. Each (order, method) pair appears once and zero amounts are left out.
+    public void forEach(AllocationSink sink) throws IOException {
+        for (int s = 0; s < orderIds.length; s++) {
+            emit(s, sink);
+        }
+    }
+
+    private void emit(int slot, AllocationSink sink) throws IOException {
+        String orderId = orderIds[slot];
+        int optionMethod = assignment.isAssigned(slot) ? assignment.method[slot] : -1;
+        if (optionMethod >= 0) {
+            long amount = assignment.cost[slot];
+            for (int i = paymentStart[slot]; i < paymentStart[slot + 1]; i++) {
+                if (paymentMethod[i] == optionMethod) amount += paymentAmount[i];
+            }
+            if (amount > 0) sink.accept(orderId, registry.getId(optionMethod), amount);
+        }
+        for (int i = paymentStart[slot]; i < paymentStart[slot + 1]; i++) {
+            if (paymentMethod[i] != optionMethod) {
+                sink.accept(orderId, registry.getId(paymentMethod[i]), paymentAmount[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package pl.edu.agh.algorithm;
+
+import java.io.IOException;
+
+// Receives allocation rows one at a time; amount is in minor units.
+public interface AllocationSink {
+    void accept(String orderId, String methodId, long amount) throws IOException;
+}
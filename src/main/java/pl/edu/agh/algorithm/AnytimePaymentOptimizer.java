@@ -0,0 +1,146 @@
+package pl.edu.agh.algorithm;
+
+import pl.edu.agh.exception.ErrorException;
+import pl.edu.agh.metrics.Counter;
+import pl.edu.agh.metrics.MetricsRecorder;
+import pl.edu.agh.metrics.Phase;
+import pl.edu.agh.model.Order;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Logger;
+
+// Trades latency for discount within a time budget. The plain greedy assignment is computed first, so there is
+// always an answer; workers then improve on it until the deadline and the best assignment found is settled
+// like FixedPointPaymentOptimizer. Worker 0 starts with the scarcity-priced passes of ScarcityPaymentOptimizer;
+// every worker then restarts LocalSearch from the current best with its own seeds, and stops early once its
+// restarts keep finding nothing.
+// A zero budget gives exactly the plain greedy. With a positive budget the result depends on how far the
+// workers got, but it is never worse than the greedy.
+public class AnytimePaymentOptimizer extends MinorUnitOptimizer {
+    private static final Logger logger = Logger.getLogger(AnytimePaymentOptimizer.class.getName());
+
+    public static final Duration DEFAULT_BUDGET = Duration.ofMillis(100);
+    private static final int ITERATIONS_PER_ORDER = LocalSearchPaymentOptimizer.DEFAULT_ITERATIONS_PER_ORDER;
+    private static final int STALE_RESTARTS = 16;
+
+    private final Duration budget;
+    private final ExecutorService executor;
+    private final int workers;
+    private final AllocationPolicy policy;
+    private final PointsSplit split;
+
+    public AnytimePaymentOptimizer(Duration budget) {
+        this(budget, null, 1);
+    }
+
+    // Workers run on the executor; null runs a single worker on the calling thread.
+    public AnytimePaymentOptimizer(Duration budget, ExecutorService executor, int workers) {
+        this(budget, executor, workers, AllocationPolicy.CATALOG_ORDER, PointsSplit.DEFAULT);
+    }
+
+    public AnytimePaymentOptimizer(Duration budget, ExecutorService executor, int workers, AllocationPolicy policy,
+                                   PointsSplit split) {
+        if (budget == null || budget.isNegative()) {
+            throw new ErrorException("Time budget must be non-negative");
+        }
+        if (workers < 1) {
+            throw new ErrorException("At least one worker is needed");
+        }
+        this.budget = budget;
+        this.executor = executor;
+        this.workers = workers;
+        this.policy = policy;
+        this.split = split;
+    }
+
+    @Override
+    public BudgetLedger optimize(List<Order> orders, BudgetLedger ledger) {
+        return optimize(orders, ledger, MetricsRecorder.DISABLED);
+    }
+
+    @Override
+    public BudgetLedger optimize(List<Order> orders, BudgetLedger ledger, MetricsRecorder metrics) {
+        long deadline = System.nanoTime() + budget.toNanos();
+        FixedPointProblem problem = FixedPointProblem.of(orders, ledger);
+        if (problem.pointsIndex < 0) {
+            logger.warning("No points method found; partial/full points options disabled");
+        }
+        long[] remaining = ledger.remaining;
+
+        long start = metrics.start();
+        OptionBuffer options = OptionBuffer.concat(Sharding.run(executor, problem.orderCount,
+                (from, to) -> FixedPointPaymentOptimizer.generate(problem, from, to, split)));
+        metrics.stop(Phase.GENERATE, start);
+        metrics.add(Counter.OPTIONS_GENERATED, options.size);
+
+        ScarcityPaymentOptimizer.Pass greedy = ScarcityPaymentOptimizer.search(problem, options, remaining, 1,
+                deadline, metrics);
+        Incumbent best = new Incumbent(greedy.assignment, greedy.remaining, greedy.discount);
+        if (budget.isPositive() && System.nanoTime() < deadline) {
+            SlotOptions slotOptions = SlotOptions.of(problem);
+            int count = executor == null ? 1 : workers;
+            for (long restarts : Sharding.each(executor, count,
+                    w -> improve(w, count, problem, options, slotOptions, remaining, best, deadline))) {
+                metrics.add(Counter.RESTARTS, restarts);
+            }
+        }
+        metrics.add(Counter.DISCOUNT_GAINED, best.discount - greedy.discount);
+
+        System.arraycopy(best.remaining, 0, remaining, 0, remaining.length);
+        FixedPointPaymentOptimizer.payDue(problem, best.assignment, remaining, policy, null, metrics);
+        return ledger;
+    }
+
+    public Duration getBudget() { return budget; }
+
+    // The ledger's limits stay untouched until the workers are done, so they serve as the starting limits.
+    // Returns the number of LocalSearch restarts the worker ran.
+    private static long improve(int worker, int count, FixedPointProblem problem, OptionBuffer options,
+                                SlotOptions slotOptions, long[] limit, Incumbent best, long deadline) {
+        if (worker == 0) {
+            ScarcityPaymentOptimizer.Pass pass = ScarcityPaymentOptimizer.search(problem, options, limit,
+                    ScarcityPaymentOptimizer.DEFAULT_PASSES, deadline, MetricsRecorder.DISABLED);
+            best.offer(pass.assignment, pass.remaining, pass.discount);
+        }
+        long seed = worker;
+        int stale = 0;
+        long restarts = 0;
+        while (stale < STALE_RESTARTS && System.nanoTime() < deadline) {
+            restarts++;
+            Incumbent from = best.copy();
+            new LocalSearch(slotOptions, from.assignment, from.remaining, seed)
+                    .improve((long) ITERATIONS_PER_ORDER * problem.slotCount, deadline);
+            long discount = FixedPointPaymentOptimizer.discount(problem, from.assignment);
+            stale = best.offer(from.assignment, from.remaining, discount) ? 0 : stale + 1;
+            seed += count;
+        }
+        return restarts;
+    }
+
+    // Best assignment so far with the limits it leaves; replaced only by a strictly larger discount.
+    private static final class Incumbent {
+        private Assignment assignment;
+        private long[] remaining;
+        private long discount;
+
+        Incumbent(Assignment assignment, long[] remaining, long discount) {
+            this.assignment = assignment;
+            this.remaining = remaining;
+            this.discount = discount;
+        }
+
+        synchronized Incumbent copy() {
+            return new Incumbent(assignment.copy(), remaining.clone(), discount);
+        }
+
+        synchronized boolean offer(Assignment candidate, long[] candidateRemaining, long candidateDiscount) {
+            if (candidateDiscount <= discount) return false;
+            assignment = candidate;
+            remaining = candidateRemaining;
+            discount = candidateDiscount;
+            return true;
+        }
+    }
+}
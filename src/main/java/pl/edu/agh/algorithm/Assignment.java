@@ -0,0 +1,52 @@
+package pl.edu.agh.algorithm;
+
+import java.util.Arrays;
+
+// Option chosen for each order slot of a FixedPointProblem, in minor units; NONE marks slots without an option.
+final class Assignment {
+    static final byte NONE = -1;
+    private static final AssignmentOption.Type[] TYPES = AssignmentOption.Type.values();
+
+    final byte[] type;
+    final int[] method;
+    final long[] profit;
+    final long[] cost;
+
+    Assignment(int slotCount) {
+        type = new byte[slotCount];
+        method = new int[slotCount];
+        profit = new long[slotCount];
+        cost = new long[slotCount];
+        Arrays.fill(type, NONE);
+    }
+
+    Assignment copy() {
+        Assignment copy = new Assignment(type.length);
+        System.arraycopy(type, 0, copy.type, 0, type.length);
+        System.arraycopy(method, 0, copy.method, 0, method.length);
+        System.arraycopy(profit, 0, copy.profit, 0, profit.length);
+        System.arraycopy(cost, 0, copy.cost, 0, cost.length);
+        return copy;
+    }
+
+    boolean isAssigned(int slot) {
+        return type[slot] != NONE;
+    }
+
+    AssignmentOption.Type typeAt(int slot) {
+        return TYPES[type[slot]];
+    }
+
+    void set(int slot, int methodIdx, byte optionType, long optionProfit, long optionCost) {
+        type[slot] = optionType;
+        method[slot] = methodIdx;
+        profit[slot] = optionProfit;
+        cost[slot] = optionCost;
+    }
+
+    void clear(int slot) {
+        type[slot] = NONE;
+        profit[slot] = 0;
+        cost[slot] = 0;
+    }
+}
@@ -4,6 +4,7 @@ import pl.edu.agh.exception.ErrorException;
 import pl.edu.agh.model.Order;
 import pl.edu.agh.model.PaymentMethod;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 public class AssignmentOption {
     public enum Type { CARD, PARTIAL_POINTS, FULL_POINTS }
@@ -13,6 +14,8 @@ public class AssignmentOption {
     private final Type type;
     private final BigDecimal profit;
     private final BigDecimal cost;
+    private final BigDecimal profitDensity;
+    private final long densityKey;
 
     public AssignmentOption(Order order, PaymentMethod paymentMethod, Type type, BigDecimal profit, BigDecimal cost) {
         if (order == null || paymentMethod == null || type == null || profit == null || cost == null) {
@@ -23,6 +26,13 @@ public class AssignmentOption {
         this.type = type;
         this.profit = profit;
         this.cost = cost;
+        if (cost.compareTo(BigDecimal.ZERO) == 0) {
+            this.profitDensity = BigDecimal.valueOf(Double.MAX_VALUE);
+            this.densityKey = Long.MAX_VALUE;
+        } else {
+            this.profitDensity = profit.divide(cost, 10, RoundingMode.HALF_UP);
+            this.densityKey = FixedPoint.densityKey(profitDensity);
+        }
     }
 
     public Order getOrder() { return order; }
@@ -31,10 +41,8 @@ public class AssignmentOption {
     public BigDecimal getProfit() { return profit; }
     public BigDecimal getCost() { return cost; }
 
-    public BigDecimal getProfitDensity() {
-        if (cost.compareTo(BigDecimal.ZERO) == 0) {
-            return BigDecimal.valueOf(Double.MAX_VALUE);
-        }
-        return profit.divide(cost, 10, BigDecimal.ROUND_HALF_UP);
-    }
-}
\ No newline at end of file
+    public BigDecimal getProfitDensity() { return profitDensity; }
+
+    // Density as its 10-decimal unscaled value; sorts like getProfitDensity(), zero cost ranks first.
+    public long getDensityKey() { return densityKey; }
+}
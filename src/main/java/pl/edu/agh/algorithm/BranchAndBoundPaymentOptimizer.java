@@ -0,0 +1,316 @@
+package pl.edu.agh.algorithm;
+
+import pl.edu.agh.exception.ErrorException;
+import pl.edu.agh.model.Order;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.logging.Logger;
+
+// Exact optimizer for small and medium batches: depth-first branch and bound over the CARD / PARTIAL_POINTS /
+// FULL_POINTS options of every order, maximising the total discount under the method limits.
+// Bounds come from the LP relaxation through its Lagrangian dual; the multipliers are tuned once at the root by
+// subgradient steps, which makes every node bound a suffix sum plus one pass over the residual limits.
+// The greedy assignment seeds the incumbent; when the time budget runs out the best incumbent is returned
+// together with its gap to the root bound.
+public class BranchAndBoundPaymentOptimizer extends MinorUnitOptimizer {
+    private static final Logger logger = Logger.getLogger(BranchAndBoundPaymentOptimizer.class.getName());
+
+    public static final Duration DEFAULT_BUDGET = Duration.ofSeconds(2);
+
+    private static final int SUBGRADIENT_ITERATIONS = 200;
+    private static final int CLOCK_CHECK_INTERVAL = 1024;
+    private static final double BOUND_EPSILON = 1e-6;
+
+    private final Duration budget;
+
+    public BranchAndBoundPaymentOptimizer() {
+        this(DEFAULT_BUDGET);
+    }
+
+    public BranchAndBoundPaymentOptimizer(Duration budget) {
+        if (budget == null || budget.isNegative()) {
+            throw new ErrorException("Time budget must be non-negative");
+        }
+        this.budget = budget;
+    }
+
+    public static class Solution {
+        private final long[] used;
+        private final long discount;
+        private final long upperBound;
+        private final boolean optimal;
+        private final long nodes;
+
+        Solution(long[] used, long discount, long upperBound, boolean optimal, long nodes) {
+            this.used = used;
+            this.discount = discount;
+            this.upperBound = upperBound;
+            this.optimal = optimal;
+            this.nodes = nodes;
+        }
+
+        public long[] getUsed() { return used; }
+        public long getDiscount() { return discount; }
+        public long getUpperBound() { return upperBound; }
+        public boolean isOptimal() { return optimal; }
+        public long getNodes() { return nodes; }
+
+        // Relative distance between the incumbent discount and the best known bound; 0 once proven optimal.
+        public double getGap() {
+            if (optimal || upperBound <= 0) return 0.0;
+            return (double) (upperBound - discount) / upperBound;
+        }
+    }
+
+    @Override
+    public BudgetLedger optimize(List<Order> orders, BudgetLedger ledger) {
+        solve(orders, ledger);
+        return ledger;
+    }
+
+    public Solution solve(List<Order> orders, MethodRegistry registry) {
+        if (registry == null) {
+            throw new ErrorException("Method registry must not be null");
+        }
+        return solve(orders, registry.newLedger());
+    }
+
+    // Spends the best assignment found from the ledger; Solution.getUsed() covers this run only.
+    public Solution solve(List<Order> orders, BudgetLedger ledger) {
+        long deadline = System.nanoTime() + budget.toNanos();
+        FixedPointProblem problem = FixedPointProblem.of(orders, ledger);
+
+        long[] remaining = problem.limit.clone();
+        OptionBuffer all = FixedPointPaymentOptimizer.generate(problem, 0, problem.orderCount);
+        int[] ranking = DensityRanking.rankDescending(all.densityKeys(), all.size);
+        Assignment greedy = FixedPointPaymentOptimizer.assign(problem, all, ranking, remaining);
+
+        Search search = new Search(problem, greedy, deadline);
+        search.run();
+        Assignment best = search.bestAssignment(greedy);
+
+        remaining = ledger.remaining;
+        for (int s = 0; s < problem.slotCount; s++) {
+            if (best.isAssigned(s)) remaining[best.method[s]] -= best.cost[s];
+        }
+        long[] toPay = FixedPointPaymentOptimizer.settle(problem, best);
+        FixedPointPaymentOptimizer.distribute(problem, toPay, remaining);
+
+        long upper = search.complete ? search.bestProfit : search.upperBound;
+        Solution solution = new Solution(FixedPointPaymentOptimizer.used(problem, remaining), search.bestProfit, upper,
+                search.complete, search.nodes);
+        if (!search.complete) {
+            logger.warning("Time budget exhausted after " + search.nodes + " nodes; returning incumbent with gap "
+                    + String.format("%.4f", solution.getGap()));
+        }
+        return solution;
+    }
+
+    // Depth-first search over the non-dominated options of every order slot.
+    private static final class Search {
+        private final FixedPointProblem problem;
+        private final long deadline;
+        private final int methodCount;
+
+        private final SlotOptions options;
+        private final int[] groupStart;
+        private final int[] optMethod;
+        private final byte[] optType;
+        private final long[] optProfit;
+        private final long[] optCost;
+
+        private final double[] lambda;
+        private int[] depthGroup;
+        private double[] suffixLagrangian;
+        private long[] suffixMax;
+
+        long bestProfit;
+        long upperBound;
+        boolean complete;
+        long nodes;
+        private int[] bestPick;
+
+        Search(FixedPointProblem problem, Assignment greedy, long deadline) {
+            this.problem = problem;
+            this.deadline = deadline;
+            this.methodCount = problem.registry.size();
+            this.lambda = new double[methodCount];
+            this.options = SlotOptions.of(problem);
+            this.groupStart = options.start;
+            this.optMethod = options.method;
+            this.optType = options.type;
+            this.optProfit = options.profit;
+            this.optCost = options.cost;
+            for (int s = 0; s < problem.slotCount; s++) {
+                if (greedy.isAssigned(s)) bestProfit += greedy.profit[s];
+            }
+        }
+
+        void run() {
+            int groups = problem.slotCount;
+            double rootBound = tuneMultipliers();
+            orderGroups();
+
+            long trivialBound = suffixMax[0];
+            upperBound = (long) Math.min(Math.floor(rootBound + BOUND_EPSILON), trivialBound);
+            upperBound = Math.max(upperBound, bestProfit);
+            if (bestProfit >= upperBound) {
+                complete = true;
+                return;
+            }
+
+            int[] next = new int[groups + 1];
+            int[] picked = new int[groups + 1];
+            long[] residual = problem.limit.clone();
+            long profit = 0;
+            int depth = 0;
+            while (depth >= 0) {
+                if ((++nodes & (CLOCK_CHECK_INTERVAL - 1)) == 0 && System.nanoTime() > deadline) {
+                    return;
+                }
+                if (depth == groups) {
+                    if (profit > bestProfit) {
+                        bestProfit = profit;
+                        bestPick = Arrays.copyOf(picked, groups);
+                        if (bestProfit >= upperBound) break;
+                    }
+                    depth--;
+                    profit -= undo(picked[depth], residual);
+                    continue;
+                }
+                int g = depthGroup[depth];
+                int count = groupStart[g + 1] - groupStart[g];
+                int cursor = next[depth]++;
+                if (cursor > count) {
+                    next[depth] = 0;
+                    depth--;
+                    if (depth >= 0) profit -= undo(picked[depth], residual);
+                    continue;
+                }
+                // options are pre-sorted by reduced profit; the last branch leaves the order without a discount
+                int opt = cursor < count ? groupStart[g] + cursor : -1;
+                if (opt >= 0 && optCost[opt] > residual[optMethod[opt]]) continue;
+                long gain = opt >= 0 ? optProfit[opt] : 0;
+                if (opt >= 0) residual[optMethod[opt]] -= optCost[opt];
+                if (!canImprove(profit + gain, depth + 1, residual)) {
+                    if (opt >= 0) residual[optMethod[opt]] += optCost[opt];
+                    continue;
+                }
+                profit += gain;
+                picked[depth] = opt;
+                depth++;
+            }
+            complete = true;
+        }
+
+        private long undo(int opt, long[] residual) {
+            if (opt < 0) return 0;
+            residual[optMethod[opt]] += optCost[opt];
+            return optProfit[opt];
+        }
+
+        private boolean canImprove(long profit, int depth, long[] residual) {
+            if (profit + suffixMax[depth] <= bestProfit) return false;
+            double bound = profit + suffixLagrangian[depth];
+            for (int m = 0; m < methodCount; m++) {
+                bound += lambda[m] * residual[m];
+            }
+            return Math.floor(bound + BOUND_EPSILON) > bestProfit;
+        }
+
+        // Subgradient descent on the Lagrangian dual of the LP relaxation; returns the best (lowest) bound found.
+        private double tuneMultipliers() {
+            double best = Double.MAX_VALUE;
+            double[] bestLambda = lambda.clone();
+            double theta = 2.0;
+            int stale = 0;
+            double[] load = new double[methodCount];
+            for (int iter = 0; iter < SUBGRADIENT_ITERATIONS; iter++) {
+                Arrays.fill(load, 0);
+                double value = 0;
+                for (int g = 0; g < problem.slotCount; g++) {
+                    int arg = -1;
+                    double top = 0;
+                    for (int i = groupStart[g]; i < groupStart[g + 1]; i++) {
+                        double reduced = optProfit[i] - lambda[optMethod[i]] * optCost[i];
+                        if (reduced > top) {
+                            top = reduced;
+                            arg = i;
+                        }
+                    }
+                    value += top;
+                    if (arg >= 0) load[optMethod[arg]] += optCost[arg];
+                }
+                double norm = 0;
+                for (int m = 0; m < methodCount; m++) {
+                    value += lambda[m] * problem.limit[m];
+                    double slack = problem.limit[m] - load[m];
+                    if (slack < 0 || lambda[m] > 0) norm += slack * slack;
+                }
+                if (value < best - BOUND_EPSILON) {
+                    best = value;
+                    bestLambda = lambda.clone();
+                    stale = 0;
+                } else if (++stale >= 10) {
+                    theta /= 2;
+                    stale = 0;
+                }
+                if (norm == 0 || value - bestProfit <= BOUND_EPSILON) break;
+                double step = theta * (value - bestProfit) / norm;
+                for (int m = 0; m < methodCount; m++) {
+                    lambda[m] = Math.max(0, lambda[m] - step * (problem.limit[m] - load[m]));
+                }
+            }
+            System.arraycopy(bestLambda, 0, lambda, 0, methodCount);
+            return best;
+        }
+
+        // Visits groups with the largest reduced profit first and sorts each group's options the same way.
+        private void orderGroups() {
+            int groups = problem.slotCount;
+            double[] groupScore = new double[groups];
+            for (int g = 0; g < groups; g++) {
+                int from = groupStart[g];
+                int to = groupStart[g + 1];
+                double[] reduced = new double[to - from];
+                for (int i = from; i < to; i++) {
+                    reduced[i - from] = optProfit[i] - lambda[optMethod[i]] * optCost[i];
+                }
+                options.sortSlot(g, reduced);
+                groupScore[g] = to > from ? Math.max(0, reduced[0]) : 0;
+            }
+            depthGroup = IntStream.range(0, groups).boxed()
+                    .sorted((a, b) -> Double.compare(groupScore[b], groupScore[a]))
+                    .mapToInt(Integer::intValue).toArray();
+
+            suffixLagrangian = new double[groups + 1];
+            suffixMax = new long[groups + 1];
+            for (int d = groups - 1; d >= 0; d--) {
+                int g = depthGroup[d];
+                long max = 0;
+                for (int i = groupStart[g]; i < groupStart[g + 1]; i++) {
+                    max = Math.max(max, optProfit[i]);
+                }
+                suffixLagrangian[d] = suffixLagrangian[d + 1] + groupScore[g];
+                suffixMax[d] = suffixMax[d + 1] + max;
+            }
+        }
+
+        Assignment bestAssignment(Assignment greedy) {
+            if (bestPick == null) {
+                return greedy;
+            }
+            Assignment assignment = new Assignment(problem.slotCount);
+            for (int d = 0; d < bestPick.length; d++) {
+                int opt = bestPick[d];
+                if (opt >= 0) {
+                    assignment.set(depthGroup[d], optMethod[opt], optType[opt], optProfit[opt], optCost[opt]);
+                }
+            }
+            return assignment;
+        }
+    }
+}
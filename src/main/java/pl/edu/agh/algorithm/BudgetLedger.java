@@ -0,0 +1,45 @@
+package pl.edu.agh.algorithm;
+
+import pl.edu.agh.exception.ErrorException;
+
+// Remaining limits of one optimization run, in minor units and indexed like the registry.
+// The registry stays immutable and shared; ledgers are cheap to create, fork for what-if runs and discard.
+public final class BudgetLedger {
+    private final MethodRegistry registry;
+    final long[] remaining;
+
+    BudgetLedger(MethodRegistry registry, long[] remaining) {
+        this.registry = registry;
+        this.remaining = remaining;
+    }
+
+    public MethodRegistry getRegistry() { return registry; }
+
+    public BudgetLedger fork() {
+        return new BudgetLedger(registry, remaining.clone());
+    }
+
+    public long getRemaining(int index) { return remaining[index]; }
+
+    // Amount spent from the registry limit so far, including spending inherited from the ledger this was forked from.
+    public long getUsed(int index) { return registry.getLimit(index) - remaining[index]; }
+
+    public long[] getUsed() {
+        long[] used = new long[remaining.length];
+        for (int i = 0; i < used.length; i++) {
+            used[i] = getUsed(i);
+        }
+        return used;
+    }
+
+    public void use(int index, long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount to use must be non-negative");
+        }
+        if (amount > remaining[index]) {
+            throw new ErrorException("Insufficient limit in method=" + registry.getId(index)
+                    + ": requested=" + FixedPoint.toDecimal(amount) + ", available=" + FixedPoint.toDecimal(remaining[index]));
+        }
+        remaining[index] -= amount;
+    }
+}
@@ -0,0 +1,197 @@
+package pl.edu.agh.algorithm;
+
+import pl.edu.agh.model.Order;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Logger;
+
+// The fixed-point greedy with option selection split into independent parts. Orders only compete through the
+// limits of the methods their options use, so orders linked through shared promotion cards (and through a shared
+// id) form connected components that can be generated, ranked and assigned on their own ledgers in parallel.
+// Remainders are then paid in one sequential pass over the merged ledger, exactly as in FixedPointPaymentOptimizer.
+//
+// Every order has points options, so the points method joins all orders into one component unless splitPoints
+// is set. With splitPoints the points limit is divided between components in proportion to their order value
+// before assignment; a component cannot take points another one leaves unused, but unused shares go back to the
+// pool before remainders are paid. Without a points method the result equals the undivided greedy.
+// Components are solved independently and merged in order of their first order, so the result does not depend
+// on the executor.
+public class ComponentPaymentOptimizer extends MinorUnitOptimizer {
+    private static final Logger logger = Logger.getLogger(ComponentPaymentOptimizer.class.getName());
+
+    private final ExecutorService executor;
+    private final boolean splitPoints;
+    private final AllocationPolicy policy;
+    private final PointsSplit split;
+
+    public ComponentPaymentOptimizer(ExecutorService executor, boolean splitPoints) {
+        this(executor, splitPoints, AllocationPolicy.CATALOG_ORDER, PointsSplit.DEFAULT);
+    }
+
+    public ComponentPaymentOptimizer(ExecutorService executor, boolean splitPoints, AllocationPolicy policy,
+                                     PointsSplit split) {
+        this.executor = executor;
+        this.splitPoints = splitPoints;
+        this.policy = policy;
+        this.split = split;
+    }
+
+    @Override
+    public BudgetLedger optimize(List<Order> orders, BudgetLedger ledger) {
+        FixedPointProblem problem = FixedPointProblem.of(orders, ledger);
+        if (problem.orderCount == 0) {
+            // no components, so no component to hand the points limit to
+            return ledger;
+        }
+        if (problem.pointsIndex < 0) {
+            logger.warning("No points method found; partial/full points options disabled");
+        }
+        long[] remaining = ledger.remaining;
+        int[][] components = components(problem);
+        long[][] shares = shares(problem, components, remaining);
+
+        List<long[]> parts = Sharding.each(executor, components.length,
+                c -> solve(problem, orders, components[c], shares[c]));
+
+        long[] toPay = new long[problem.slotCount];
+        for (int c = 0; c < components.length; c++) {
+            long[] part = parts.get(c);
+            int[] members = components[c];
+            for (int k = 0; k < members.length; k++) {
+                int o = members[k];
+                toPay[problem.slot[o]] = part[k];
+            }
+            for (int m = 0; m < remaining.length; m++) {
+                remaining[m] -= shares[c][m] - part[members.length + m];
+            }
+        }
+        FixedPointPaymentOptimizer.distribute(problem, toPay, remaining, policy);
+        return ledger;
+    }
+
+    // Order indices per component, each in list order; components ordered by their first order.
+    private int[][] components(FixedPointProblem problem) {
+        int m = problem.registry.size();
+        int points = problem.pointsIndex;
+        int[] parent = new int[problem.slotCount + m];
+        for (int i = 0; i < parent.length; i++) parent[i] = i;
+        for (int o = 0; o < problem.orderCount; o++) {
+            int s = problem.slot[o];
+            for (int card : problem.promotions[o]) {
+                if (card != points || !splitPoints) union(parent, s, problem.slotCount + card);
+            }
+            if (points >= 0 && !splitPoints) union(parent, s, problem.slotCount + points);
+        }
+
+        // orders without promotion cards only compete for points; keep them together instead of one part each
+        boolean[] hasCard = new boolean[parent.length];
+        for (int j = 0; j < m; j++) {
+            hasCard[find(parent, problem.slotCount + j)] = true;
+        }
+        int loose = -1;
+        for (int s = 0; s < problem.slotCount; s++) {
+            if (hasCard[find(parent, s)]) continue;
+            if (loose < 0) loose = s;
+            else union(parent, loose, s);
+        }
+
+        int[] componentOf = new int[parent.length];
+        Arrays.fill(componentOf, -1);
+        int[] size = new int[problem.orderCount];
+        int count = 0;
+        int[] orderComponent = new int[problem.orderCount];
+        for (int o = 0; o < problem.orderCount; o++) {
+            int root = find(parent, problem.slot[o]);
+            if (componentOf[root] < 0) componentOf[root] = count++;
+            orderComponent[o] = componentOf[root];
+            size[orderComponent[o]]++;
+        }
+        int[][] components = new int[count][];
+        for (int c = 0; c < count; c++) components[c] = new int[size[c]];
+        int[] filled = new int[count];
+        for (int o = 0; o < problem.orderCount; o++) {
+            int c = orderComponent[o];
+            components[c][filled[c]++] = o;
+        }
+        return components;
+    }
+
+    // Starting limits per component. Promotion cards belong to the component that uses them; the points limit is
+    // split by order value when splitPoints is set. Other methods are only touched when remainders are paid.
+    private long[][] shares(FixedPointProblem problem, int[][] components, long[] remaining) {
+        int m = remaining.length;
+        long[][] shares = new long[components.length][m];
+        for (int c = 0; c < components.length; c++) {
+            for (int o : components[c]) {
+                for (int card : problem.promotions[o]) {
+                    if (card != problem.pointsIndex) shares[c][card] = remaining[card];
+                }
+            }
+        }
+        int points = problem.pointsIndex;
+        if (points < 0) return shares;
+        if (components.length == 1 || !splitPoints) {
+            shares[0][points] = remaining[points];
+            return shares;
+        }
+        long[] weight = new long[components.length];
+        long total = 0;
+        for (int c = 0; c < components.length; c++) {
+            for (int o : components[c]) weight[c] += problem.value[o];
+            total += weight[c];
+        }
+        // cumulative rounding hands out the whole limit exactly
+        BigInteger limit = BigInteger.valueOf(remaining[points]);
+        BigInteger divisor = BigInteger.valueOf(total);
+        long cumulative = 0;
+        long handed = 0;
+        for (int c = 0; c < components.length; c++) {
+            cumulative += weight[c];
+            long upTo = limit.multiply(BigInteger.valueOf(cumulative)).divide(divisor).longValueExact();
+            shares[c][points] = upTo - handed;
+            handed = upTo;
+        }
+        return shares;
+    }
+
+    // Amount still due per member order followed by the component's unspent limits.
+    private long[] solve(FixedPointProblem problem, List<Order> orders, int[] members, long[] share) {
+        List<Order> part = new ArrayList<>(members.length);
+        for (int o : members) part.add(orders.get(o));
+        BudgetLedger ledger = new BudgetLedger(problem.registry, share.clone());
+        FixedPointProblem sub = FixedPointProblem.of(part, ledger);
+
+        OptionBuffer options = FixedPointPaymentOptimizer.generate(sub, 0, sub.orderCount, split);
+        int[] ranking = DensityRanking.rankDescending(options.densityKeys(), options.size);
+        Assignment assignment = FixedPointPaymentOptimizer.assign(sub, options, ranking, ledger.remaining);
+        long[] toPay = FixedPointPaymentOptimizer.settle(sub, assignment);
+
+        long[] result = new long[members.length + share.length];
+        for (int k = 0; k < members.length; k++) {
+            result[k] = toPay[sub.slot[k]];
+        }
+        System.arraycopy(ledger.remaining, 0, result, members.length, share.length);
+        return result;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int ra = find(parent, a);
+        int rb = find(parent, b);
+        if (ra != rb) {
+            if (ra < rb) parent[rb] = ra;
+            else parent[ra] = rb;
+        }
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+}
@@ -0,0 +1,56 @@
+package pl.edu.agh.algorithm;
+
+import java.util.Arrays;
+
+// Stable descending ranking of options by a primitive density key (FixedPoint.densityKey, AssignmentOption.getDensityKey).
+// LSD radix sort over (key, index) arrays; byte positions shared by every key are skipped.
+final class DensityRanking {
+    private static final int RADIX_BITS = 8;
+    private static final int BUCKETS = 1 << RADIX_BITS;
+
+    private DensityRanking() {
+    }
+
+    static int[] rankDescending(long[] keys, int size) {
+        int[] idx = new int[size];
+        long[] k = new long[size];
+        for (int i = 0; i < size; i++) {
+            idx[i] = i;
+            // flips the ordering so that an ascending unsigned sort yields descending signed keys
+            k[i] = keys[i] ^ Long.MAX_VALUE;
+        }
+        if (size < 2) {
+            return idx;
+        }
+
+        int[] tmpIdx = new int[size];
+        long[] tmpK = new long[size];
+        int[] count = new int[BUCKETS + 1];
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+            Arrays.fill(count, 0);
+            for (int i = 0; i < size; i++) {
+                count[digit(k[i], shift) + 1]++;
+            }
+            if (count[digit(k[0], shift) + 1] == size) continue;
+            for (int b = 0; b < BUCKETS; b++) {
+                count[b + 1] += count[b];
+            }
+            for (int i = 0; i < size; i++) {
+                int pos = count[digit(k[i], shift)]++;
+                tmpIdx[pos] = idx[i];
+                tmpK[pos] = k[i];
+            }
+            int[] swapIdx = idx;
+            idx = tmpIdx;
+            tmpIdx = swapIdx;
+            long[] swapK = k;
+            k = tmpK;
+            tmpK = swapK;
+        }
+        return idx;
+    }
+
+    private static int digit(long key, int shift) {
+        return (int) (key >>> shift) & (BUCKETS - 1);
+    }
+}
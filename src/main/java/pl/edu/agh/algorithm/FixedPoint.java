@@ -0,0 +1,116 @@
+package pl.edu.agh.algorithm;
+
+import pl.edu.agh.exception.ErrorException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+// Money as long minor units (grosze) and rates as long millionths, rounded exactly like the BigDecimal path.
+// Amounts are limited to ten integer digits so that amount * rate still fits in a long for discounts up to 100%;
+// a larger discount that overflows is reported as an ErrorException.
+public final class FixedPoint {
+    public static final int SCALE = 2;
+    public static final long RATE_UNIT = 1_000_000L;
+    public static final long DENSITY_UNIT = 10_000_000_000L;
+    private static final long MAX_EXACT_WHOLE = (Long.MAX_VALUE - 1) / DENSITY_UNIT - 1;
+
+    private FixedPoint() {
+    }
+
+    public static boolean isExact(BigDecimal amount) {
+        if (amount == null) return false;
+        BigDecimal stripped = amount.stripTrailingZeros();
+        return stripped.scale() <= SCALE && stripped.precision() - stripped.scale() <= 10;
+    }
+
+    public static long toMinor(BigDecimal amount) {
+        try {
+            return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new ErrorException("Amount is not representable in minor units: " + amount, e);
+        }
+    }
+
+    public static BigDecimal toDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    // Rates cached by MethodRegistry have scale 6, so their unscaled value is the rate in millionths.
+    public static long toRateMicros(BigDecimal rate) {
+        try {
+            return rate.setScale(6, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new ErrorException("Rate is not representable in millionths: " + rate, e);
+        }
+    }
+
+    // value * rate, rounded HALF_UP to minor units.
+    public static long applyRate(long minor, long rateMicros) {
+        try {
+            return divideHalfUp(Math.multiplyExact(minor, rateMicros), RATE_UNIT);
+        } catch (ArithmeticException e) {
+            throw new ErrorException("Discount of " + toDecimal(minor) + " at rate " + rateMicros
+                    + "/" + RATE_UNIT + " overflows minor units", e);
+        }
+    }
+
+    // value * tenths / 10, rounded HALF_UP to minor units.
+    public static long tenths(long minor, int tenths) {
+        return divideHalfUp(Math.multiplyExact(minor, tenths), 10);
+    }
+
+    // value * percent / 100, rounded HALF_UP to minor units.
+    public static long percent(long minor, int percent) {
+        return divideHalfUp(Math.multiplyExact(minor, percent), 100);
+    }
+
+    public static long divideHalfUp(long numerator, long divisor) {
+        long q = numerator / divisor;
+        long r = numerator % divisor;
+        if (r != 0 && Math.abs(r) >= divisor - Math.abs(r)) {
+            q += (numerator < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return q;
+    }
+
+    // profit / cost rounded HALF_UP to 10 decimals, as an unscaled long; zero cost ranks above everything.
+    // Densities too large for a long saturate just below the zero-cost key.
+    public static long densityKey(long profit, long cost) {
+        if (cost == 0) {
+            return Long.MAX_VALUE;
+        }
+        long whole = profit / cost;
+        if (cost < 0 || profit < 0 || whole >= MAX_EXACT_WHOLE) {
+            return densityKey(BigDecimal.valueOf(profit).divide(BigDecimal.valueOf(cost), 10, RoundingMode.HALF_UP));
+        }
+        long r = profit % cost;
+        long frac;
+        if (r <= Long.MAX_VALUE / DENSITY_UNIT) {
+            long scaled = r * DENSITY_UNIT;
+            frac = scaled / cost;
+            r = scaled % cost;
+        } else {
+            frac = 0;
+            for (int digit = 0; digit < 10; digit++) {
+                r *= 10;
+                frac = frac * 10 + r / cost;
+                r %= cost;
+            }
+        }
+        long key = whole * DENSITY_UNIT + frac;
+        if (r >= cost - r) {
+            key++;
+        }
+        return key;
+    }
+
+    // Key of a density already rounded to 10 decimals.
+    public static long densityKey(BigDecimal density) {
+        BigInteger unscaled = density.setScale(10, RoundingMode.HALF_UP).unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE) {
+            return Math.min(unscaled.longValue(), Long.MAX_VALUE - 1);
+        }
+        return unscaled.signum() > 0 ? Long.MAX_VALUE - 1 : Long.MIN_VALUE;
+    }
+}
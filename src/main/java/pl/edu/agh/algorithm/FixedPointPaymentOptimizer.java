@@ -0,0 +1,241 @@
+package pl.edu.agh.algorithm;
+
+import pl.edu.agh.metrics.Counter;
+import pl.edu.agh.metrics.MetricsRecorder;
+import pl.edu.agh.metrics.Phase;
+import pl.edu.agh.model.Order;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Logger;
+
+// Same greedy as GreedyPaymentOptimizer, computed on long minor units and primitive arrays.
+public class FixedPointPaymentOptimizer extends MinorUnitOptimizer {
+    private static final Logger logger = Logger.getLogger(FixedPointPaymentOptimizer.class.getName());
+
+    private final ExecutorService executor;
+    private final AllocationPolicy policy;
+    private final PointsSplit split;
+    private final OptionCache cache;
+
+    public FixedPointPaymentOptimizer() {
+        this(null);
+    }
+
+    // Generates options in order shards on the given executor; null keeps generation on the calling thread.
+    public FixedPointPaymentOptimizer(ExecutorService executor) {
+        this(executor, AllocationPolicy.CATALOG_ORDER);
+    }
+
+    public FixedPointPaymentOptimizer(ExecutorService executor, AllocationPolicy policy) {
+        this(executor, policy, PointsSplit.DEFAULT);
+    }
+
+    public FixedPointPaymentOptimizer(ExecutorService executor, AllocationPolicy policy, PointsSplit split) {
+        this(executor, policy, split, null);
+    }
+
+    // With a cache, options of orders seen in earlier runs on the same catalog are reused instead of generated.
+    public FixedPointPaymentOptimizer(ExecutorService executor, AllocationPolicy policy, PointsSplit split,
+                                      OptionCache cache) {
+        this.executor = executor;
+        this.policy = policy;
+        this.split = split;
+        this.cache = cache;
+    }
+
+    @Override
+    public BudgetLedger optimize(List<Order> orders, BudgetLedger ledger) {
+        return optimize(orders, ledger, MetricsRecorder.DISABLED);
+    }
+
+    @Override
+    public BudgetLedger optimize(List<Order> orders, BudgetLedger ledger, MetricsRecorder metrics) {
+        run(orders, ledger, metrics, null);
+        return ledger;
+    }
+
+    // Same run as optimize, also keeping what each order pays to which method.
+    public AllocationResult allocate(List<Order> orders, BudgetLedger ledger) {
+        return allocate(orders, ledger, MetricsRecorder.DISABLED);
+    }
+
+    public AllocationResult allocate(List<Order> orders, BudgetLedger ledger, MetricsRecorder metrics) {
+        return run(orders, ledger, metrics, new PaymentLog());
+    }
+
+    private AllocationResult run(List<Order> orders, BudgetLedger ledger, MetricsRecorder metrics, PaymentLog log) {
+        FixedPointProblem problem = FixedPointProblem.of(orders, ledger);
+        if (problem.pointsIndex < 0) {
+            logger.warning("No points method found; partial/full points options disabled");
+        }
+        long[] remaining = ledger.remaining;
+
+        long start = metrics.start();
+        OptionBuffer options = cache != null
+                ? cache.generate(problem, orders, split, metrics)
+                : OptionBuffer.concat(Sharding.run(executor, problem.orderCount,
+                        (from, to) -> generate(problem, from, to, split)));
+        metrics.stop(Phase.GENERATE, start);
+        metrics.add(Counter.OPTIONS_GENERATED, options.size);
+
+        start = metrics.start();
+        int[] ranking = DensityRanking.rankDescending(options.densityKeys(), options.size);
+        metrics.stop(Phase.SORT, start);
+
+        start = metrics.start();
+        Assignment assignment = assign(problem, options, ranking, remaining, metrics);
+        metrics.stop(Phase.ASSIGN, start);
+
+        payDue(problem, assignment, remaining, policy, log, metrics);
+        return log == null ? null : new AllocationResult(orders, problem, assignment, log);
+    }
+
+    static OptionBuffer generate(FixedPointProblem problem, int from, int to) {
+        return generate(problem, from, to, PointsSplit.DEFAULT);
+    }
+
+    static OptionBuffer generate(FixedPointProblem problem, int from, int to, PointsSplit split) {
+        OptionBuffer options = new OptionBuffer((to - from) * optionsPerOrder(problem, split));
+        long[] amounts = new long[split.maxOptions()];
+        for (int o = from; o < to; o++) {
+            generate(problem, o, split, amounts, options);
+        }
+        return options;
+    }
+
+    static int optionsPerOrder(FixedPointProblem problem, PointsSplit split) {
+        return problem.pointsIndex >= 0 ? split.maxOptions() + 2 : 1;
+    }
+
+    // Appends the options of order o; amounts is scratch space of split.maxOptions() entries.
+    static void generate(FixedPointProblem problem, int o, PointsSplit split, long[] amounts, OptionBuffer options) {
+        int points = problem.pointsIndex;
+        long value = problem.value[o];
+        for (int card : problem.promotions[o]) {
+            long profit = FixedPoint.applyRate(value, problem.rate[card]);
+            options.add(o, card, AssignmentOption.Type.CARD, profit, value - profit);
+        }
+        if (points >= 0) {
+            long profit = FixedPoint.tenths(value, 1);
+            int count = split.amounts(value, amounts);
+            for (int k = 0; k < count; k++) {
+                options.add(o, points, AssignmentOption.Type.PARTIAL_POINTS, profit, amounts[k]);
+            }
+            long fullProfit = FixedPoint.applyRate(value, problem.rate[points]);
+            options.add(o, points, AssignmentOption.Type.FULL_POINTS, fullProfit, value - fullProfit);
+        }
+    }
+
+    // Walks options in ranked order and takes the first affordable one per order slot.
+    static Assignment assign(FixedPointProblem problem, OptionBuffer options, int[] ranking, long[] remaining) {
+        return assign(problem, options, ranking, remaining, MetricsRecorder.DISABLED);
+    }
+
+    static Assignment assign(FixedPointProblem problem, OptionBuffer options, int[] ranking, long[] remaining,
+                             MetricsRecorder metrics) {
+        Assignment assignment = new Assignment(problem.slotCount);
+        long rejected = 0;
+        for (int r : ranking) {
+            int s = problem.slot[options.order[r]];
+            if (assignment.isAssigned(s)) continue;
+            int m = options.method[r];
+            if (options.cost[r] <= remaining[m]) {
+                assignment.set(s, m, options.type[r], options.profit[r], options.cost[r]);
+                remaining[m] -= options.cost[r];
+            } else {
+                rejected++;
+            }
+        }
+        metrics.add(Counter.OPTIONS_REJECTED, rejected);
+        return assignment;
+    }
+
+    // Settles the assignment and pays what is still due from remaining: points first, then the cards in the
+    // policy's order. log, when not null, records each payment.
+    static void payDue(FixedPointProblem problem, Assignment assignment, long[] remaining, AllocationPolicy policy,
+                       PaymentLog log, MetricsRecorder metrics) {
+        long start = metrics.start();
+        long[] toPay = settle(problem, assignment);
+        metrics.stop(Phase.ASSIGN, start);
+        if (metrics.isEnabled()) {
+            long due = 0;
+            for (long amount : toPay) {
+                if (amount > 0) due++;
+            }
+            metrics.add(Counter.ORDERS_DISTRIBUTED, due);
+        }
+
+        start = metrics.start();
+        RemainderWork work = new RemainderWork(toPay, policy.largestDueFirst(), log);
+        if (problem.pointsIndex >= 0) work.payFrom(problem.pointsIndex, remaining);
+        metrics.stop(Phase.POINTS_DISTRIBUTION, start);
+        start = metrics.start();
+        payCards(problem, work, remaining, policy);
+        metrics.stop(Phase.CARD_DISTRIBUTION, start);
+    }
+
+    // Amount still to pay per order slot once the chosen options are applied.
+    static long[] settle(FixedPointProblem problem, Assignment assignment) {
+        long[] toPay = new long[problem.slotCount];
+        for (int o = 0; o < problem.orderCount; o++) {
+            int s = problem.slot[o];
+            toPay[s] = dueAfter(problem.value[o], assignment, s);
+        }
+        return toPay;
+    }
+
+    // Discount the assignment gives once settled; partial points round differently from their option profit.
+    static long discount(FixedPointProblem problem, Assignment assignment) {
+        // like settle, the last order with an id decides its slot's amount due
+        long[] value = new long[problem.slotCount];
+        for (int o = 0; o < problem.orderCount; o++) {
+            value[problem.slot[o]] = problem.value[o];
+        }
+        long discount = 0;
+        for (int s = 0; s < problem.slotCount; s++) {
+            if (assignment.isAssigned(s)) {
+                discount += value[s] - assignment.cost[s] - dueAfter(value[s], assignment, s);
+            }
+        }
+        return discount;
+    }
+
+    static long dueAfter(long value, Assignment assignment, int slot) {
+        if (!assignment.isAssigned(slot)) {
+            return value;
+        }
+        if (assignment.typeAt(slot) == AssignmentOption.Type.PARTIAL_POINTS) {
+            return Math.max(FixedPoint.tenths(value, 9) - assignment.cost[slot], 0);
+        }
+        return 0;
+    }
+
+    static void distribute(FixedPointProblem problem, long[] toPay, long[] remaining) {
+        distribute(problem, toPay, remaining, AllocationPolicy.CATALOG_ORDER);
+    }
+
+    // Points first, then the cards in the policy's order. Slots are numbered by first occurrence, so the
+    // catalog-order policy pays orders in list order like the original greedy.
+    static void distribute(FixedPointProblem problem, long[] toPay, long[] remaining, AllocationPolicy policy) {
+        RemainderWork work = new RemainderWork(toPay, policy.largestDueFirst());
+        if (problem.pointsIndex >= 0) work.payFrom(problem.pointsIndex, remaining);
+        payCards(problem, work, remaining, policy);
+    }
+
+    private static void payCards(FixedPointProblem problem, RemainderWork work, long[] remaining,
+                                 AllocationPolicy policy) {
+        if (work.size() == 0) return;
+        for (int m : policy.cardOrder(problem.registry, RemainderWork.decimals(remaining))) {
+            work.payFrom(m, remaining);
+            if (work.size() == 0) break;
+        }
+    }
+
+    static long[] used(FixedPointProblem problem, long[] remaining) {
+        long[] used = new long[remaining.length];
+        for (int m = 0; m < remaining.length; m++) {
+            used[m] = problem.limit[m] - remaining[m];
+        }
+        return used;
+    }
+}
@@ -0,0 +1,105 @@
+package pl.edu.agh.algorithm;
+
+import pl.edu.agh.exception.ErrorException;
+import pl.edu.agh.model.Order;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Orders and method limits of one run converted to minor units and dense indices.
+// Orders sharing an id share one slot, mirroring the id-keyed maps of GreedyPaymentOptimizer.
+final class FixedPointProblem {
+    private static final int[] NO_PROMOTIONS = new int[0];
+
+    final MethodRegistry registry;
+    final int orderCount;
+    final long[] value;
+    final int[] slot;
+    final int slotCount;
+    final int[][] promotions;
+    final long[] rate;
+    final long[] limit;
+    final int pointsIndex;
+
+    private FixedPointProblem(MethodRegistry registry, int orderCount, long[] value, int[] slot, int slotCount,
+                              int[][] promotions, long[] rate, long[] limit) {
+        this.registry = registry;
+        this.orderCount = orderCount;
+        this.value = value;
+        this.slot = slot;
+        this.slotCount = slotCount;
+        this.promotions = promotions;
+        this.rate = rate;
+        this.limit = limit;
+        this.pointsIndex = registry.getPointsIndex();
+    }
+
+    // Limits are the ledger's remaining amounts at the start of the run.
+    static FixedPointProblem of(List<Order> orders, BudgetLedger ledger) {
+        if (orders == null || ledger == null) {
+            throw new ErrorException("Orders list and budget ledger must not be null");
+        }
+        MethodRegistry registry = ledger.getRegistry();
+        int n = orders.size();
+        long[] value = new long[n];
+        int[] slot = new int[n];
+        int[][] promotions = new int[n][];
+        Map<String, Integer> slotById = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            Order order = orders.get(i);
+            value[i] = FixedPoint.toMinor(order.getValue());
+            Integer existing = slotById.putIfAbsent(order.getId(), slotById.size());
+            slot[i] = existing == null ? slotById.size() - 1 : existing;
+            promotions[i] = resolvePromotions(order.getPromotions(), registry);
+        }
+
+        int m = registry.size();
+        long[] rate = new long[m];
+        long[] limit = new long[m];
+        for (int j = 0; j < m; j++) {
+            rate[j] = FixedPoint.toRateMicros(registry.getRate(j));
+            limit[j] = ledger.remaining[j];
+        }
+        return new FixedPointProblem(registry, n, value, slot, slotById.size(), promotions, rate, limit);
+    }
+
+    static boolean supports(List<Order> orders, MethodRegistry registry) {
+        if (!registry.hasMinorUnitLimits()) return false;
+        for (Order order : orders) {
+            if (!FixedPoint.isExact(order.getValue())) return false;
+        }
+        return true;
+    }
+
+    private static int[] resolvePromotions(List<String> promos, MethodRegistry registry) {
+        if (promos == null || promos.isEmpty()) {
+            return NO_PROMOTIONS;
+        }
+        int[] resolved = new int[promos.size()];
+        int count = 0;
+        for (String promoId : promos) {
+            int idx = registry.indexOf(promoId);
+            if (idx >= 0) {
+                resolved[count++] = idx;
+            }
+        }
+        return count == resolved.length ? resolved : Arrays.copyOf(resolved, count);
+    }
+
+    // Points first, then every other method in catalog order, as in GreedyPaymentOptimizer.
+    int[] distributionOrder() {
+        int m = registry.size();
+        int[] sequence = new int[m];
+        int count = 0;
+        if (pointsIndex >= 0) {
+            sequence[count++] = pointsIndex;
+        }
+        for (int j = 0; j < m; j++) {
+            if (MethodRegistry.POINTS_ID.equals(registry.getId(j))) continue;
+            sequence[count++] = j;
+        }
+        return Arrays.copyOf(sequence, count);
+    }
+}
@@ -3,97 +3,206 @@ package pl.edu.agh.algorithm;
 import pl.edu.agh.model.Order;
 import pl.edu.agh.model.PaymentMethod;
 import pl.edu.agh.exception.ErrorException;
+import pl.edu.agh.metrics.Counter;
+import pl.edu.agh.metrics.MetricsRecorder;
+import pl.edu.agh.metrics.Phase;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Logger;
 
-public class GreedyPaymentOptimizer {
+public class GreedyPaymentOptimizer implements PaymentOptimizer {
     private static final Logger logger = Logger.getLogger(GreedyPaymentOptimizer.class.getName());
 
+    private final ExecutorService executor;
+    private final AllocationPolicy policy;
+    private final PointsSplit split;
+
+    public GreedyPaymentOptimizer() {
+        this(null);
+    }
+
+    // Generates options in order shards on the given executor; null keeps generation on the calling thread.
+    public GreedyPaymentOptimizer(ExecutorService executor) {
+        this(executor, AllocationPolicy.CATALOG_ORDER);
+    }
+
+    public GreedyPaymentOptimizer(ExecutorService executor, AllocationPolicy policy) {
+        this(executor, policy, PointsSplit.DEFAULT);
+    }
+
+    public GreedyPaymentOptimizer(ExecutorService executor, AllocationPolicy policy, PointsSplit split) {
+        this.executor = executor;
+        this.policy = policy;
+        this.split = split;
+    }
+
+    @Override
     public List<PaymentMethod> optimizePayments(List<Order> orders, List<PaymentMethod> methods) {
         if (orders == null || methods == null) {
             throw new ErrorException("Orders or methods list must not be null");
         }
-        PaymentMethod pointsMethod = methods.stream()
-                .filter(m -> "PUNKTY".equals(m.getId()))
-                .findFirst().orElse(null);
+        optimize(orders, new MethodRegistry(methods));
+        return methods;
+    }
+
+    public void optimize(List<Order> orders, MethodRegistry registry) {
+        optimize(orders, registry, MetricsRecorder.DISABLED);
+    }
+
+    public void optimize(List<Order> orders, MethodRegistry registry, MetricsRecorder metrics) {
+        if (orders == null || registry == null) {
+            throw new ErrorException("Orders list and method registry must not be null");
+        }
+        PaymentMethod pointsMethod = registry.getPointsMethod();
         if (pointsMethod == null) {
             logger.warning("No points method found; partial/full points options disabled");
         }
 
-        List<AssignmentOption> options = new ArrayList<>();
-        for (Order order : orders) {
-            BigDecimal value = order.getValue();
-            List<String> promos = order.getPromotions();
-            if (promos != null) {
-                for (String promoId : promos) {
-                    PaymentMethod card = methods.stream()
-                            .filter(m -> m.getId().equals(promoId))
-                            .findFirst().orElse(null);
-                    if (card == null) continue;
-                    BigDecimal rate = card.getDiscount().divide(BigDecimal.valueOf(100), 6, RoundingMode.HALF_UP);
-                    BigDecimal profit = value.multiply(rate).setScale(2, RoundingMode.HALF_UP);
-                    BigDecimal cost = value.subtract(profit).setScale(2, RoundingMode.HALF_UP);
-                    options.add(new AssignmentOption(order, card, AssignmentOption.Type.CARD, profit, cost));
-                }
-            }
-            if (pointsMethod != null) {
-                BigDecimal basePct = BigDecimal.valueOf(0.10);
-                for (BigDecimal p = basePct; p.compareTo(BigDecimal.ONE) < 0; p = p.add(basePct)) {
-                    BigDecimal cost = value.multiply(p).setScale(2, RoundingMode.HALF_UP);
-                    BigDecimal profit = value.multiply(basePct).setScale(2, RoundingMode.HALF_UP);
-                    options.add(new AssignmentOption(order, pointsMethod, AssignmentOption.Type.PARTIAL_POINTS, profit, cost));
-                }
-                BigDecimal fullRate = pointsMethod.getDiscount().divide(BigDecimal.valueOf(100), 6, RoundingMode.HALF_UP);
-                BigDecimal fullProfit = value.multiply(fullRate).setScale(2, RoundingMode.HALF_UP);
-                BigDecimal fullCost = value.subtract(fullProfit).setScale(2, RoundingMode.HALF_UP);
-                options.add(new AssignmentOption(order, pointsMethod, AssignmentOption.Type.FULL_POINTS, fullProfit, fullCost));
-            }
+        long start = metrics.start();
+        List<List<AssignmentOption>> shards = Sharding.run(executor, orders.size(),
+                (from, to) -> generateOptions(orders, from, to, registry));
+        List<AssignmentOption> options = shards.size() == 1 ? shards.get(0) : merge(shards);
+        metrics.stop(Phase.GENERATE, start);
+        metrics.add(Counter.OPTIONS_GENERATED, options.size());
+
+        start = metrics.start();
+
+        long[] keys = new long[options.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = options.get(i).getDensityKey();
         }
-        options.sort((a, b) -> b.getProfitDensity().compareTo(a.getProfitDensity()));
+        int[] ranking = DensityRanking.rankDescending(keys, keys.length);
+        metrics.stop(Phase.SORT, start);
+
+        start = metrics.start();
+        long rejected = 0;
 
         Map<String, AssignmentOption> chosen = new HashMap<>();
-        for (AssignmentOption opt : options) {
+        for (int r : ranking) {
+            AssignmentOption opt = options.get(r);
             String oid = opt.getOrder().getId();
             PaymentMethod m = opt.getPaymentMethod();
             if (chosen.containsKey(oid)) continue;
             if (opt.getCost().compareTo(m.getRemaining()) <= 0) {
                 chosen.put(oid, opt);
                 m.useAmount(opt.getCost());
+            } else {
+                rejected++;
             }
         }
 
-        Map<String, BigDecimal> remaining = new HashMap<>();
+        // one slot per order id, numbered by first occurrence; the last order with an id sets its amount due
+        Map<String, Integer> slotById = new HashMap<>();
+        BigDecimal[] due = new BigDecimal[orders.size()];
         for (Order order : orders) {
+            Integer slot = slotById.putIfAbsent(order.getId(), slotById.size());
+            int s = slot == null ? slotById.size() - 1 : slot;
             AssignmentOption opt = chosen.get(order.getId());
             if (opt == null) {
-                remaining.put(order.getId(), order.getValue());
+                due[s] = order.getValue();
             } else if (opt.getType() == AssignmentOption.Type.CARD || opt.getType() == AssignmentOption.Type.FULL_POINTS) {
-                remaining.put(order.getId(), BigDecimal.ZERO);
+                due[s] = BigDecimal.ZERO;
             } else {
                 BigDecimal after = order.getValue().multiply(BigDecimal.valueOf(0.90)).setScale(2, RoundingMode.HALF_UP);
-                remaining.put(order.getId(), after.subtract(opt.getCost()).max(BigDecimal.ZERO));
+                due[s] = after.subtract(opt.getCost()).max(BigDecimal.ZERO);
             }
         }
+        int[] work = unpaidSlots(due, slotById.size());
 
-        if (pointsMethod != null) distributePayments(orders, remaining, pointsMethod);
-        for (PaymentMethod pm : methods) {
-            if ("PUNKTY".equals(pm.getId())) continue;
-            distributePayments(orders, remaining, pm);
+        metrics.stop(Phase.ASSIGN, start);
+        metrics.add(Counter.OPTIONS_REJECTED, rejected);
+        metrics.add(Counter.ORDERS_DISTRIBUTED, work.length);
+
+        start = metrics.start();
+        int unpaid = work.length;
+        if (pointsMethod != null) unpaid = payFrom(pointsMethod, work, unpaid, due);
+        metrics.stop(Phase.POINTS_DISTRIBUTION, start);
+        start = metrics.start();
+        if (unpaid > 0) {
+            BigDecimal[] left = new BigDecimal[registry.size()];
+            for (int i = 0; i < left.length; i++) left[i] = registry.get(i).getRemaining();
+            for (int m : policy.cardOrder(registry, left)) {
+                unpaid = payFrom(registry.get(m), work, unpaid, due);
+                if (unpaid == 0) break;
+            }
         }
-        return methods;
+        metrics.stop(Phase.CARD_DISTRIBUTION, start);
     }
 
-    private void distributePayments(List<Order> orders, Map<String, BigDecimal> rem, PaymentMethod method) {
-        for (Order o : orders) {
-            BigDecimal toPay = rem.get(o.getId());
-            if (toPay.compareTo(BigDecimal.ZERO) <= 0) continue;
-            BigDecimal avail = method.getRemaining();
-            if (avail.compareTo(BigDecimal.ZERO) <= 0) break;
-            BigDecimal use = toPay.min(avail);
-            method.useAmount(use);
-            rem.put(o.getId(), toPay.subtract(use));
+    List<AssignmentOption> generateOptions(List<Order> orders, int from, int to, MethodRegistry registry) {
+        PaymentMethod pointsMethod = registry.getPointsMethod();
+        List<AssignmentOption> options = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            Order order = orders.get(i);
+            BigDecimal value = order.getValue();
+            List<String> promos = order.getPromotions();
+            if (promos != null) {
+                for (String promoId : promos) {
+                    int cardIdx = registry.indexOf(promoId);
+                    if (cardIdx < 0) continue;
+                    PaymentMethod card = registry.get(cardIdx);
+                    BigDecimal rate = registry.getRate(cardIdx);
+                    BigDecimal profit = value.multiply(rate).setScale(2, RoundingMode.HALF_UP);
+                    BigDecimal cost = value.subtract(profit).setScale(2, RoundingMode.HALF_UP);
+                    options.add(new AssignmentOption(order, card, AssignmentOption.Type.CARD, profit, cost));
+                }
+            }
+            if (pointsMethod != null) {
+                BigDecimal profit = value.multiply(BigDecimal.valueOf(0.10)).setScale(2, RoundingMode.HALF_UP);
+                for (BigDecimal cost : split.amounts(value)) {
+                    options.add(new AssignmentOption(order, pointsMethod, AssignmentOption.Type.PARTIAL_POINTS, profit, cost));
+                }
+                BigDecimal fullRate = registry.getRate(registry.getPointsIndex());
+                BigDecimal fullProfit = value.multiply(fullRate).setScale(2, RoundingMode.HALF_UP);
+                BigDecimal fullCost = value.subtract(fullProfit).setScale(2, RoundingMode.HALF_UP);
+                options.add(new AssignmentOption(order, pointsMethod, AssignmentOption.Type.FULL_POINTS, fullProfit, fullCost));
+            }
+        }
+        return options;
+    }
+
+    private static List<AssignmentOption> merge(List<List<AssignmentOption>> shards) {
+        int total = 0;
+        for (List<AssignmentOption> shard : shards) total += shard.size();
+        List<AssignmentOption> merged = new ArrayList<>(total);
+        for (List<AssignmentOption> shard : shards) merged.addAll(shard);
+        return merged;
+    }
+
+    // Slots with something left to pay, in slot order or largest amount first depending on the policy.
+    int[] unpaidSlots(BigDecimal[] due, int slots) {
+        Integer[] unpaid = new Integer[slots];
+        int count = 0;
+        for (int s = 0; s < slots; s++) {
+            if (due[s].signum() > 0) unpaid[count++] = s;
+        }
+        Integer[] work = Arrays.copyOf(unpaid, count);
+        if (policy.largestDueFirst()) {
+            Arrays.sort(work, (a, b) -> due[b].compareTo(due[a]));
+        }
+        return Arrays.stream(work).mapToInt(Integer::intValue).toArray();
+    }
+
+    // Pays the first size slots of the work list from the method and compacts it to the ones still unpaid.
+    static int payFrom(PaymentMethod method, int[] work, int size, BigDecimal[] due) {
+        BigDecimal avail = method.getRemaining();
+        BigDecimal spent = BigDecimal.ZERO;
+        int kept = 0;
+        int i = 0;
+        for (; i < size && avail.signum() > 0; i++) {
+            int s = work[i];
+            BigDecimal use = due[s].min(avail);
+            avail = avail.subtract(use);
+            spent = spent.add(use);
+            due[s] = due[s].subtract(use);
+            if (due[s].signum() > 0) work[kept++] = s;
+        }
+        System.arraycopy(work, i, work, kept, size - i);
+        if (spent.signum() > 0) {
+            method.useAmount(spent);
         }
+        return kept + size - i;
     }
 }
\ No newline at end of file
@@ -0,0 +1,219 @@
+package pl.edu.agh.algorithm;
+
+import pl.edu.agh.metrics.Counter;
+import pl.edu.agh.metrics.MetricsRecorder;
+import pl.edu.agh.metrics.Phase;
+import pl.edu.agh.model.Order;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+// Same result as FixedPointPaymentOptimizer without materialising every option. Each order keeps only its best
+// not yet rejected option in a heap; the next one is derived when the head turns out to be unaffordable.
+// Memory is proportional to the number of orders and no global sort is needed.
+public class LazyGreedyPaymentOptimizer extends MinorUnitOptimizer {
+    private static final Logger logger = Logger.getLogger(LazyGreedyPaymentOptimizer.class.getName());
+
+    private static final byte CARD = (byte) AssignmentOption.Type.CARD.ordinal();
+    private static final byte PARTIAL = (byte) AssignmentOption.Type.PARTIAL_POINTS.ordinal();
+    private static final byte FULL = (byte) AssignmentOption.Type.FULL_POINTS.ordinal();
+
+    private final AllocationPolicy policy;
+    private final PointsSplit split;
+
+    public LazyGreedyPaymentOptimizer() {
+        this(AllocationPolicy.CATALOG_ORDER, PointsSplit.DEFAULT);
+    }
+
+    public LazyGreedyPaymentOptimizer(AllocationPolicy policy, PointsSplit split) {
+        this.policy = policy;
+        this.split = split;
+    }
+
+    @Override
+    public BudgetLedger optimize(List<Order> orders, BudgetLedger ledger) {
+        return optimize(orders, ledger, MetricsRecorder.DISABLED);
+    }
+
+    // Options are never generated up front, so only the assignment and distribution phases are timed.
+    @Override
+    public BudgetLedger optimize(List<Order> orders, BudgetLedger ledger, MetricsRecorder metrics) {
+        FixedPointProblem problem = FixedPointProblem.of(orders, ledger);
+        if (problem.pointsIndex < 0) {
+            logger.warning("No points method found; partial/full points options disabled");
+        }
+        long[] remaining = ledger.remaining;
+
+        long start = metrics.start();
+        Cursors cursors = new Cursors(problem, split);
+        Assignment assignment = cursors.assign(remaining);
+        metrics.stop(Phase.ASSIGN, start);
+        metrics.add(Counter.OPTIONS_REJECTED, cursors.rejected);
+
+        FixedPointPaymentOptimizer.payDue(problem, assignment, remaining, policy, null, metrics);
+        return ledger;
+    }
+
+    // Per-order enumeration state plus a binary heap of order indices keyed by each order's current head option.
+    // Options of one order are consumed in (density desc, generation position asc) order, so the rejected ones
+    // always form a prefix and (lastKey, lastPos) is enough to find the next candidate. Positions follow
+    // FixedPointPaymentOptimizer.generate: cards, then the split's partial amounts, then full points.
+    private static final class Cursors {
+        private final FixedPointProblem problem;
+        private final PointsSplit split;
+        private final long[] amounts;
+        private final long[] lastKey;
+        private final int[] lastPos;
+        private final byte[] nextPartial;
+
+        private final long[] headKey;
+        private final int[] headPos;
+        private final int[] headMethod;
+        private final byte[] headType;
+        private final long[] headProfit;
+        private final long[] headCost;
+
+        private final int[] heap;
+        private int heapSize;
+        long rejected;
+
+        Cursors(FixedPointProblem problem, PointsSplit split) {
+            this.problem = problem;
+            this.split = split;
+            this.amounts = new long[split.maxOptions()];
+            int n = problem.orderCount;
+            lastKey = new long[n];
+            lastPos = new int[n];
+            nextPartial = new byte[n];
+            headKey = new long[n];
+            headPos = new int[n];
+            headMethod = new int[n];
+            headType = new byte[n];
+            headProfit = new long[n];
+            headCost = new long[n];
+            heap = new int[n];
+            for (int o = 0; o < n; o++) {
+                lastPos[o] = -1;
+                if (advance(o)) {
+                    heap[heapSize++] = o;
+                }
+            }
+            for (int i = heapSize / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        Assignment assign(long[] remaining) {
+            Assignment assignment = new Assignment(problem.slotCount);
+            while (heapSize > 0) {
+                int o = heap[0];
+                int s = problem.slot[o];
+                if (assignment.isAssigned(s)) {
+                    pop();
+                    continue;
+                }
+                int m = headMethod[o];
+                if (headCost[o] <= remaining[m]) {
+                    assignment.set(s, m, headType[o], headProfit[o], headCost[o]);
+                    remaining[m] -= headCost[o];
+                    pop();
+                    continue;
+                }
+                rejected++;
+                lastKey[o] = headKey[o];
+                lastPos[o] = headPos[o];
+                if (headType[o] == PARTIAL) {
+                    nextPartial[o]++;
+                }
+                if (advance(o)) {
+                    siftDown(0);
+                } else {
+                    pop();
+                }
+            }
+            return assignment;
+        }
+
+        // Loads the best option of order o that ranks after the last rejected one; false when none is left.
+        private boolean advance(int o) {
+            long value = problem.value[o];
+            int[] promos = problem.promotions[o];
+            int points = problem.pointsIndex;
+            boolean found = false;
+
+            for (int p = 0; p < promos.length; p++) {
+                long profit = FixedPoint.applyRate(value, problem.rate[promos[p]]);
+                long cost = value - profit;
+                long key = FixedPoint.densityKey(profit, cost);
+                if (isAfterLast(o, key, p) && (!found || ranksBefore(key, p, headKey[o], headPos[o]))) {
+                    setHead(o, key, p, promos[p], CARD, profit, cost);
+                    found = true;
+                }
+            }
+            if (points >= 0) {
+                // the partial amounts share one profit and ascend in cost, so they are consumed in order
+                int count = split.amounts(value, amounts);
+                int k = nextPartial[o];
+                if (k < count) {
+                    int pos = promos.length + k;
+                    long profit = FixedPoint.tenths(value, 1);
+                    long cost = amounts[k];
+                    long key = FixedPoint.densityKey(profit, cost);
+                    if (!found || ranksBefore(key, pos, headKey[o], headPos[o])) {
+                        setHead(o, key, pos, points, PARTIAL, profit, cost);
+                        found = true;
+                    }
+                }
+                int pos = promos.length + count;
+                long profit = FixedPoint.applyRate(value, problem.rate[points]);
+                long cost = value - profit;
+                long key = FixedPoint.densityKey(profit, cost);
+                if (isAfterLast(o, key, pos) && (!found || ranksBefore(key, pos, headKey[o], headPos[o]))) {
+                    setHead(o, key, pos, points, FULL, profit, cost);
+                    found = true;
+                }
+            }
+            return found;
+        }
+
+        private boolean isAfterLast(int o, long key, int pos) {
+            return lastPos[o] < 0 || ranksBefore(lastKey[o], lastPos[o], key, pos);
+        }
+
+        private static boolean ranksBefore(long key, int pos, long otherKey, int otherPos) {
+            return key > otherKey || (key == otherKey && pos < otherPos);
+        }
+
+        private void setHead(int o, long key, int pos, int method, byte type, long profit, long cost) {
+            headKey[o] = key;
+            headPos[o] = pos;
+            headMethod[o] = method;
+            headType[o] = type;
+            headProfit[o] = profit;
+            headCost[o] = cost;
+        }
+
+        // Heap order matches the global stable ranking: density desc, then generation order (order index first).
+        private boolean before(int a, int b) {
+            return headKey[a] > headKey[b] || (headKey[a] == headKey[b] && a < b);
+        }
+
+        private void pop() {
+            heap[0] = heap[--heapSize];
+            siftDown(0);
+        }
+
+        private void siftDown(int i) {
+            int item = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) break;
+                if (child + 1 < heapSize && before(heap[child + 1], heap[child])) child++;
+                if (!before(heap[child], item)) break;
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = item;
+        }
+    }
+}
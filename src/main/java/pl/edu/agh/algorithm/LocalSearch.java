@@ -0,0 +1,150 @@
+package pl.edu.agh.algorithm;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Hill climbing on an assignment before the remainder is distributed. Two moves are sampled at random:
+// upgrading one order to a better option that fits, and an ejection pair where a holder of the contested
+// method steps down to its best alternative so that another order can take a better option there.
+// Remaining limits and the holders of every method are updated incrementally, so each move costs
+// a constant number of array operations per option of the two orders involved.
+final class LocalSearch {
+    private static final int CLOCK_CHECK_INTERVAL = 1024;
+
+    private final SlotOptions options;
+    private final Assignment assignment;
+    private final long[] remaining;
+    private final SplittableRandom random;
+
+    private final int[][] holders;
+    private final int[] holderCount;
+    private final int[] holderPos;
+
+    LocalSearch(SlotOptions options, Assignment assignment, long[] remaining, long seed) {
+        this.options = options;
+        this.assignment = assignment;
+        this.remaining = remaining;
+        this.random = new SplittableRandom(seed);
+        int methods = remaining.length;
+        this.holders = new int[methods][];
+        this.holderCount = new int[methods];
+        this.holderPos = new int[options.slotCount()];
+        for (int m = 0; m < methods; m++) {
+            holders[m] = new int[8];
+        }
+        for (int s = 0; s < options.slotCount(); s++) {
+            if (assignment.isAssigned(s)) addHolder(assignment.method[s], s);
+        }
+    }
+
+    // Runs up to maxIterations sampled moves or until the deadline; returns the discount gained in minor units.
+    long improve(long maxIterations, long deadlineNanos) {
+        int slots = options.slotCount();
+        if (slots == 0) return 0;
+        long gain = 0;
+        for (int s = 0; s < slots; s++) {
+            gain += upgrade(s);
+        }
+        for (long iter = 1; iter <= maxIterations; iter++) {
+            if ((iter & (CLOCK_CHECK_INTERVAL - 1)) == 0 && System.nanoTime() > deadlineNanos) break;
+            int s = random.nextInt(slots);
+            int count = options.start[s + 1] - options.start[s];
+            if (count == 0) continue;
+            int opt = options.start[s] + random.nextInt(count);
+            gain += tryEject(s, opt);
+        }
+        return gain;
+    }
+
+    // Moves slot s to its most profitable option that fits without touching other orders.
+    private long upgrade(int s) {
+        long current = currentProfit(s);
+        int best = -1;
+        long bestProfit = current;
+        for (int i = options.start[s]; i < options.start[s + 1]; i++) {
+            if (options.profit[i] > bestProfit && options.cost[i] <= freeFor(s, options.method[i])) {
+                best = i;
+                bestProfit = options.profit[i];
+            }
+        }
+        if (best < 0) return 0;
+        apply(s, best);
+        return bestProfit - current;
+    }
+
+    private long tryEject(int s, int opt) {
+        long delta = options.profit[opt] - currentProfit(s);
+        if (delta <= 0) return 0;
+        int m = options.method[opt];
+        long free = freeFor(s, m);
+        if (options.cost[opt] <= free) {
+            apply(s, opt);
+            return delta;
+        }
+        if (holderCount[m] == 0) return 0;
+        int t = holders[m][random.nextInt(holderCount[m])];
+        if (t == s) return 0;
+        long freed = free + assignment.cost[t];
+        if (options.cost[opt] > freed) return 0;
+
+        // best alternative for t away from m, given that s has released its current option
+        int alt = -1;
+        long altProfit = 0;
+        for (int i = options.start[t]; i < options.start[t + 1]; i++) {
+            int am = options.method[i];
+            if (am == m || options.profit[i] <= altProfit) continue;
+            if (options.cost[i] <= freeFor(s, am)) {
+                alt = i;
+                altProfit = options.profit[i];
+            }
+        }
+        long total = delta + altProfit - assignment.profit[t];
+        if (total <= 0) return 0;
+        release(t);
+        apply(s, opt);
+        if (alt >= 0) apply(t, alt);
+        return total;
+    }
+
+    private long currentProfit(int s) {
+        return assignment.isAssigned(s) ? assignment.profit[s] : 0;
+    }
+
+    // Capacity of method m available to slot s if s gave up its current option.
+    private long freeFor(int s, int m) {
+        long free = remaining[m];
+        if (assignment.isAssigned(s) && assignment.method[s] == m) free += assignment.cost[s];
+        return free;
+    }
+
+    private void apply(int s, int opt) {
+        release(s);
+        int m = options.method[opt];
+        assignment.set(s, m, options.type[opt], options.profit[opt], options.cost[opt]);
+        remaining[m] -= options.cost[opt];
+        addHolder(m, s);
+    }
+
+    private void release(int s) {
+        if (!assignment.isAssigned(s)) return;
+        int m = assignment.method[s];
+        remaining[m] += assignment.cost[s];
+        removeHolder(m, s);
+        assignment.clear(s);
+    }
+
+    private void addHolder(int m, int s) {
+        if (holderCount[m] == holders[m].length) {
+            holders[m] = Arrays.copyOf(holders[m], holders[m].length * 2);
+        }
+        holderPos[s] = holderCount[m];
+        holders[m][holderCount[m]++] = s;
+    }
+
+    private void removeHolder(int m, int s) {
+        int pos = holderPos[s];
+        int last = holders[m][--holderCount[m]];
+        holders[m][pos] = last;
+        holderPos[last] = pos;
+    }
+}
@@ -0,0 +1,61 @@
+package pl.edu.agh.algorithm;
+
+import pl.edu.agh.exception.ErrorException;
+import pl.edu.agh.metrics.Counter;
+import pl.edu.agh.metrics.MetricsRecorder;
+import pl.edu.agh.model.Order;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.logging.Logger;
+
+// Greedy assignment followed by a bounded LocalSearch pass, then the usual remainder distribution.
+public class LocalSearchPaymentOptimizer extends MinorUnitOptimizer {
+    private static final Logger logger = Logger.getLogger(LocalSearchPaymentOptimizer.class.getName());
+
+    public static final int DEFAULT_ITERATIONS_PER_ORDER = 20;
+    public static final Duration DEFAULT_BUDGET = Duration.ofMillis(200);
+
+    private final int iterationsPerOrder;
+    private final Duration budget;
+    private final long seed;
+
+    public LocalSearchPaymentOptimizer() {
+        this(DEFAULT_ITERATIONS_PER_ORDER, DEFAULT_BUDGET, 0L);
+    }
+
+    public LocalSearchPaymentOptimizer(int iterationsPerOrder, Duration budget, long seed) {
+        if (iterationsPerOrder < 0 || budget == null || budget.isNegative()) {
+            throw new ErrorException("Iteration and time budgets must be non-negative");
+        }
+        this.iterationsPerOrder = iterationsPerOrder;
+        this.budget = budget;
+        this.seed = seed;
+    }
+
+    @Override
+    public BudgetLedger optimize(List<Order> orders, BudgetLedger ledger) {
+        return optimize(orders, ledger, MetricsRecorder.DISABLED);
+    }
+
+    // The discount recovered over the greedy assignment goes to DISCOUNT_GAINED.
+    @Override
+    public BudgetLedger optimize(List<Order> orders, BudgetLedger ledger, MetricsRecorder metrics) {
+        long deadline = System.nanoTime() + budget.toNanos();
+        FixedPointProblem problem = FixedPointProblem.of(orders, ledger);
+        if (problem.pointsIndex < 0) {
+            logger.warning("No points method found; partial/full points options disabled");
+        }
+        long[] remaining = ledger.remaining;
+
+        OptionBuffer options = FixedPointPaymentOptimizer.generate(problem, 0, problem.orderCount);
+        int[] ranking = DensityRanking.rankDescending(options.densityKeys(), options.size);
+        Assignment assignment = FixedPointPaymentOptimizer.assign(problem, options, ranking, remaining);
+
+        LocalSearch search = new LocalSearch(SlotOptions.of(problem), assignment, remaining, seed);
+        metrics.add(Counter.DISCOUNT_GAINED, search.improve((long) iterationsPerOrder * problem.slotCount, deadline));
+
+        FixedPointPaymentOptimizer.payDue(problem, assignment, remaining, AllocationPolicy.CATALOG_ORDER, null, metrics);
+        return ledger;
+    }
+}
@@ -0,0 +1,101 @@
+package pl.edu.agh.algorithm;
+
+import pl.edu.agh.exception.ErrorException;
+import pl.edu.agh.model.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Index over a payment method catalog. Methods keep their catalog position as a dense index, so per-method
+// state can live in plain arrays. The index, rates and minor-unit limits are fixed when the registry is built,
+// but get() and find() return the catalog's own PaymentMethod objects, which the BigDecimal greedy still spends
+// through useAmount. Minor-unit runs spend from a BudgetLedger instead and leave the methods untouched, so one
+// registry can serve any number of concurrent minor-unit optimizations.
+public final class MethodRegistry {
+    public static final String POINTS_ID = "PUNKTY";
+
+    private final PaymentMethod[] methods;
+    private final String[] ids;
+    private final BigDecimal[] rates;
+    private final long[] limits;
+    private final Map<String, Integer> indexById;
+    private final int pointsIndex;
+
+    public MethodRegistry(List<PaymentMethod> methods) {
+        if (methods == null) {
+            throw new ErrorException("Methods list must not be null");
+        }
+        int n = methods.size();
+        this.methods = new PaymentMethod[n];
+        this.ids = new String[n];
+        this.rates = new BigDecimal[n];
+        this.indexById = new HashMap<>(n * 2);
+        long[] minorLimits = new long[n];
+        boolean exact = true;
+        int points = -1;
+        for (int i = 0; i < n; i++) {
+            PaymentMethod m = methods.get(i);
+            String id = m.getId().intern();
+            this.methods[i] = m;
+            this.ids[i] = id;
+            this.rates[i] = m.getDiscount().divide(BigDecimal.valueOf(100), 6, RoundingMode.HALF_UP);
+            indexById.putIfAbsent(id, i);
+            if (exact && FixedPoint.isExact(m.getRemaining())) {
+                minorLimits[i] = FixedPoint.toMinor(m.getRemaining());
+            } else {
+                exact = false;
+            }
+            if (points < 0 && POINTS_ID.equals(id)) {
+                points = i;
+            }
+        }
+        this.pointsIndex = points;
+        this.limits = exact ? minorLimits : null;
+    }
+
+    public int size() { return methods.length; }
+
+    // Returns the dense index of the first method with the given id, or -1 when it is not in the catalog.
+    public int indexOf(String id) {
+        Integer idx = indexById.get(id);
+        return idx == null ? -1 : idx;
+    }
+
+    public PaymentMethod get(int index) { return methods[index]; }
+
+    public PaymentMethod find(String id) {
+        int idx = indexOf(id);
+        return idx < 0 ? null : methods[idx];
+    }
+
+    public String getId(int index) { return ids[index]; }
+    public BigDecimal getRate(int index) { return rates[index]; }
+
+    public int getPointsIndex() { return pointsIndex; }
+    public PaymentMethod getPointsMethod() { return pointsIndex < 0 ? null : methods[pointsIndex]; }
+
+    public List<PaymentMethod> asList() { return List.of(methods); }
+
+    // True when every limit has at most two decimal places, so ledgers can track it in minor units.
+    public boolean hasMinorUnitLimits() { return limits != null; }
+
+    // Limit available to a run (the method's remaining amount when the registry was built), in minor units.
+    public long getLimit(int index) {
+        requireMinorUnitLimits();
+        return limits[index];
+    }
+
+    public BudgetLedger newLedger() {
+        requireMinorUnitLimits();
+        return new BudgetLedger(this, limits.clone());
+    }
+
+    private void requireMinorUnitLimits() {
+        if (limits == null) {
+            throw new ErrorException("Method limits are not representable in minor units");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package pl.edu.agh.algorithm;
+
+import pl.edu.agh.exception.ErrorException;
+import pl.edu.agh.metrics.MetricsRecorder;
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.PaymentMethod;
+
+import java.util.List;
+
+// Base for optimizers that work in minor units. They spend from a BudgetLedger instead of mutating PaymentMethod,
+// so a shared registry can serve concurrent runs.
+public abstract class MinorUnitOptimizer implements PaymentOptimizer {
+
+    // True when every order value and method limit has at most two decimal places.
+    public static boolean supports(List<Order> orders, MethodRegistry registry) {
+        return FixedPointProblem.supports(orders, registry);
+    }
+
+    // Spends the chosen payments from the ledger and returns it.
+    public abstract BudgetLedger optimize(List<Order> orders, BudgetLedger ledger);
+
+    // Same as optimize(orders, ledger), recording phase timings and counters where the engine has them.
+    public BudgetLedger optimize(List<Order> orders, BudgetLedger ledger, MetricsRecorder metrics) {
+        return optimize(orders, ledger);
+    }
+
+    // Amount used per method in minor units, indexed like the registry, on a fresh ledger.
+    public long[] optimize(List<Order> orders, MethodRegistry registry) {
+        if (registry == null) {
+            throw new ErrorException("Method registry must not be null");
+        }
+        return optimize(orders, registry.newLedger()).getUsed();
+    }
+
+    @Override
+    public List<PaymentMethod> optimizePayments(List<Order> orders, List<PaymentMethod> methods) {
+        if (orders == null || methods == null) {
+            throw new ErrorException("Orders or methods list must not be null");
+        }
+        MethodRegistry registry = new MethodRegistry(methods);
+        long[] used = optimize(orders, registry);
+        for (int i = 0; i < used.length; i++) {
+            registry.get(i).useAmount(FixedPoint.toDecimal(used[i]));
+        }
+        return methods;
+    }
+}
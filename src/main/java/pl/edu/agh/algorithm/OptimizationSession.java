@@ -0,0 +1,445 @@
+package pl.edu.agh.algorithm;
+
+import pl.edu.agh.exception.ErrorException;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.model.Order;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Keeps the ranked options, the chosen option and the paid remainder of every order between calls, so adding or
+// cancelling an order or changing a limit only repairs the orders that touch the affected methods.
+// The opening assignment is exactly the fixed-point greedy; after deltas it stays feasible and greedy-like, but
+// may differ from a full run over the same orders (e.g. a new order never displaces an existing one).
+public final class OptimizationSession {
+    private static final int[] NO_METHODS = new int[0];
+    private static final long[] NO_AMOUNTS = new long[0];
+    private static final byte PARTIAL_POINTS = (byte) AssignmentOption.Type.PARTIAL_POINTS.ordinal();
+
+    private final MethodRegistry registry;
+    private final BudgetLedger ledger;
+    private final long[] limit;
+    private final long[] remaining;
+    private final int[] distributionOrder;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    // per method, the orders whose best option on it ranks above their current choice, best option first
+    private final List<NavigableSet<Entry>> upgradable;
+    private final List<Set<Entry>> holders;
+    private final List<Set<Entry>> payers;
+    private final Set<Entry> unpaid = new LinkedHashSet<>();
+    private long nextSeq;
+
+    public OptimizationSession(List<Order> orders, MethodRegistry registry) throws WarningException {
+        if (orders == null || registry == null) {
+            throw new ErrorException("Orders list and method registry must not be null");
+        }
+        this.registry = registry;
+        this.ledger = registry.newLedger();
+        this.remaining = ledger.remaining;
+        this.limit = remaining.clone();
+        int m = registry.size();
+        this.upgradable = new ArrayList<>(m);
+        for (int j = 0; j < m; j++) upgradable.add(byBestOptionOn(j));
+        this.holders = newSets(m);
+        this.payers = newSets(m);
+
+        FixedPointProblem problem = FixedPointProblem.of(orders, ledger);
+        this.distributionOrder = problem.distributionOrder();
+        OptionBuffer options = FixedPointPaymentOptimizer.generate(problem, 0, problem.orderCount);
+        long[] keys = options.densityKeys();
+        int[] ranking = DensityRanking.rankDescending(keys, options.size);
+        int[] local = new int[options.size];
+        Entry[] opened = split(orders, options, keys, ranking, local);
+        for (Entry e : opened) {
+            if (entries.putIfAbsent(e.order.getId(), e) != null) {
+                throw new WarningException("Duplicate order id in session: " + e.order.getId());
+            }
+            e.seq = nextSeq++;
+            index(e);
+        }
+
+        // same walk as FixedPointPaymentOptimizer: ranked options first, then remainders method by method
+        for (int r : ranking) {
+            Entry e = opened[options.order[r]];
+            int i = local[r];
+            if (e.choice < 0 && e.cost[i] <= remaining[e.method[i]]) {
+                choose(e, i);
+            }
+        }
+        for (Entry e : opened) {
+            e.unpaid = due(e);
+        }
+        for (int method : distributionOrder) {
+            for (Entry e : opened) {
+                if (remaining[method] <= 0) break;
+                payFrom(e, method);
+            }
+        }
+        for (Entry e : opened) {
+            if (e.unpaid > 0) unpaid.add(e);
+        }
+    }
+
+    // Each delta returns the new used total of every method whose usage changed, in catalog order.
+    public Map<String, BigDecimal> addOrder(Order order) throws WarningException {
+        if (order == null) {
+            throw new ErrorException("Order must not be null");
+        }
+        if (entries.containsKey(order.getId())) {
+            throw new WarningException("Order already in session: " + order.getId());
+        }
+        long[] before = getUsed();
+        FixedPointProblem problem = FixedPointProblem.of(List.of(order), ledger);
+        OptionBuffer options = FixedPointPaymentOptimizer.generate(problem, 0, 1);
+        long[] keys = options.densityKeys();
+        Entry e = split(List.of(order), options, keys, DensityRanking.rankDescending(keys, options.size),
+                new int[options.size])[0];
+        entries.put(order.getId(), e);
+        e.seq = nextSeq++;
+        index(e);
+        place(e);
+        return changes(before);
+    }
+
+    public Map<String, BigDecimal> removeOrder(String orderId) throws WarningException {
+        Entry e = entries.remove(orderId);
+        if (e == null) {
+            throw new WarningException("Order not in session: " + orderId);
+        }
+        long[] before = getUsed();
+        Deque<Integer> freed = new ArrayDeque<>();
+        release(e, freed);
+        for (int method : e.method) {
+            upgradable.get(method).remove(e);
+        }
+        repair(freed);
+        return changes(before);
+    }
+
+    public Map<String, BigDecimal> changeLimit(String methodId, BigDecimal newLimit) throws WarningException {
+        int method = registry.indexOf(methodId);
+        if (method < 0) {
+            throw new WarningException("Unknown payment method: " + methodId);
+        }
+        if (newLimit == null || newLimit.signum() < 0 || !FixedPoint.isExact(newLimit)) {
+            throw new WarningException("Limit of " + methodId + " must be non-negative with at most two decimal places");
+        }
+        long[] before = getUsed();
+        long value = FixedPoint.toMinor(newLimit);
+        remaining[method] += value - limit[method];
+        limit[method] = value;
+        Deque<Integer> freed = new ArrayDeque<>();
+        if (remaining[method] < 0) {
+            shrink(method, freed);
+        } else {
+            freed.add(method);
+        }
+        repair(freed);
+        return changes(before);
+    }
+
+    public int size() { return entries.size(); }
+
+    public long[] getUsed() {
+        long[] used = new long[limit.length];
+        for (int m = 0; m < used.length; m++) {
+            used[m] = limit[m] - remaining[m];
+        }
+        return used;
+    }
+
+    public long getRemaining(int method) { return remaining[method]; }
+
+    // Sum of order amounts no method could cover.
+    public long getUnpaid() {
+        long total = 0;
+        for (Entry e : unpaid) total += e.unpaid;
+        return total;
+    }
+
+    // Lowers usage on an over-committed method: plain remainder payments move first, then the lowest-density
+    // options on it are evicted and placed again.
+    private void shrink(int method, Deque<Integer> freed) {
+        List<Entry> moved = new ArrayList<>();
+        for (Entry e : new ArrayList<>(payers.get(method))) {
+            if (remaining[method] >= 0) break;
+            long back = Math.min(e.paidOn(method), -remaining[method]);
+            e.refund(method, back);
+            if (e.paidOn(method) == 0) payers.get(method).remove(e);
+            remaining[method] += back;
+            e.unpaid += back;
+            unpaid.add(e);
+            moved.add(e);
+        }
+        List<Entry> evicted = new ArrayList<>();
+        if (remaining[method] < 0) {
+            List<Entry> held = new ArrayList<>(holders.get(method));
+            held.sort(Comparator.comparingLong(Entry::chosenKey));
+            for (Entry e : held) {
+                if (remaining[method] >= 0) break;
+                release(e, freed);
+                evicted.add(e);
+            }
+        }
+        // release clears the unpaid amount, so evicted orders are skipped here and placed below
+        for (Entry e : moved) {
+            if (e.unpaid > 0) payDue(e);
+        }
+        for (int i = evicted.size() - 1; i >= 0; i--) {
+            place(evicted.get(i));
+        }
+    }
+
+    // Hands capacity freed on the queued methods to orders that can move up to a better option on them, best
+    // option first, then to orders with an unpaid remainder; each walk stops once the method has nothing left.
+    // Every move strictly improves one order, so this terminates.
+    private void repair(Deque<Integer> freed) {
+        while (!freed.isEmpty()) {
+            int method = freed.poll();
+            NavigableSet<Entry> waiting = upgradable.get(method);
+            Entry e = waiting.isEmpty() ? null : waiting.first();
+            while (e != null && remaining[method] > 0) {
+                // moving e only changes e's own position, so the walk continues after it
+                Entry next = waiting.higher(e);
+                if (canUpgrade(e)) {
+                    release(e, freed);
+                    place(e);
+                }
+                e = next;
+            }
+            for (Iterator<Entry> it = unpaid.iterator(); it.hasNext() && remaining[method] > 0; ) {
+                if (pay(it.next())) it.remove();
+            }
+        }
+    }
+
+    private boolean canUpgrade(Entry e) {
+        int limitIndex = e.choice < 0 ? e.method.length : e.choice;
+        for (int i = 0; i < limitIndex; i++) {
+            int m = e.method[i];
+            long available = remaining[m] + e.paidOn(m) + (e.choice >= 0 && e.method[e.choice] == m ? e.cost[e.choice] : 0);
+            if (e.cost[i] <= available) return true;
+        }
+        return false;
+    }
+
+    private void place(Entry e) {
+        for (int i = 0; i < e.method.length; i++) {
+            if (e.cost[i] <= remaining[e.method[i]]) {
+                choose(e, i);
+                break;
+            }
+        }
+        e.unpaid = due(e);
+        payDue(e);
+    }
+
+    private void payDue(Entry e) {
+        if (pay(e)) {
+            unpaid.remove(e);
+        } else {
+            unpaid.add(e);
+        }
+    }
+
+    // Pays what e still owes in distribution order; true once nothing is left.
+    private boolean pay(Entry e) {
+        for (int method : distributionOrder) {
+            if (e.unpaid == 0) break;
+            payFrom(e, method);
+        }
+        return e.unpaid == 0;
+    }
+
+    private void payFrom(Entry e, int method) {
+        long use = Math.min(e.unpaid, remaining[method]);
+        if (use <= 0) return;
+        e.pay(method, use);
+        e.unpaid -= use;
+        remaining[method] -= use;
+        payers.get(method).add(e);
+    }
+
+    // e stays upgradable only on methods whose best option for it ranks above the chosen one.
+    private void choose(Entry e, int option) {
+        e.choice = option;
+        remaining[e.method[option]] -= e.cost[option];
+        holders.get(e.method[option]).add(e);
+        for (int i = option; i < e.method.length; i++) {
+            if (e.firstOn(e.method[i]) == i) upgradable.get(e.method[i]).remove(e);
+        }
+    }
+
+    // Returns everything the order holds to the methods and queues them for repair.
+    private void release(Entry e, Deque<Integer> freed) {
+        for (int i = 0; i < e.payCount; i++) {
+            int method = e.payMethod[i];
+            remaining[method] += e.payAmount[i];
+            payers.get(method).remove(e);
+            freed.add(method);
+        }
+        e.payCount = 0;
+        if (e.choice >= 0) {
+            int method = e.method[e.choice];
+            remaining[method] += e.cost[e.choice];
+            holders.get(method).remove(e);
+            freed.add(method);
+            e.choice = -1;
+            index(e);
+        }
+        e.unpaid = 0;
+        unpaid.remove(e);
+    }
+
+    private long due(Entry e) {
+        if (e.choice < 0) {
+            return e.value;
+        }
+        if (e.type[e.choice] == PARTIAL_POINTS) {
+            return Math.max(FixedPoint.tenths(e.value, 9) - e.cost[e.choice], 0);
+        }
+        return 0;
+    }
+
+    // Marks e upgradable on every method it has options on, as when it holds no option.
+    private void index(Entry e) {
+        for (int method : e.method) {
+            upgradable.get(method).add(e);
+        }
+    }
+
+    private Map<String, BigDecimal> changes(long[] before) {
+        long[] after = getUsed();
+        Map<String, BigDecimal> changed = new LinkedHashMap<>();
+        for (int m = 0; m < after.length; m++) {
+            if (after[m] != before[m]) {
+                changed.put(registry.getId(m), FixedPoint.toDecimal(after[m]));
+            }
+        }
+        return changed;
+    }
+
+    // Splits globally ranked options into per-order lists that keep the ranking; local[r] is the position of
+    // ranked option r within its order's list.
+    private static Entry[] split(List<Order> orders, OptionBuffer options, long[] keys, int[] ranking, int[] local) {
+        int n = orders.size();
+        int[] count = new int[n];
+        for (int r = 0; r < options.size; r++) count[options.order[r]]++;
+        Entry[] split = new Entry[n];
+        for (int o = 0; o < n; o++) {
+            Order order = orders.get(o);
+            split[o] = new Entry(order, FixedPoint.toMinor(order.getValue()), count[o]);
+        }
+        int[] filled = new int[n];
+        for (int r : ranking) {
+            int o = options.order[r];
+            int i = filled[o]++;
+            Entry e = split[o];
+            e.method[i] = options.method[r];
+            e.type[i] = options.type[r];
+            e.cost[i] = options.cost[r];
+            e.key[i] = keys[r];
+            local[r] = i;
+        }
+        return split;
+    }
+
+    // Orders by the key of their best option on the method, ties in the order they joined the session.
+    private static NavigableSet<Entry> byBestOptionOn(int method) {
+        return new TreeSet<>((a, b) -> {
+            int c = Long.compare(b.key[b.firstOn(method)], a.key[a.firstOn(method)]);
+            return c != 0 ? c : Long.compare(a.seq, b.seq);
+        });
+    }
+
+    private static List<Set<Entry>> newSets(int count) {
+        List<Set<Entry>> sets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) sets.add(new LinkedHashSet<>());
+        return sets;
+    }
+
+    private static final class Entry {
+        final Order order;
+        final long value;
+        final int[] method;
+        final byte[] type;
+        final long[] cost;
+        final long[] key;
+        // fixed once the order joins, as it orders the upgradable sets
+        long seq;
+        int choice = -1;
+        int[] payMethod = NO_METHODS;
+        long[] payAmount = NO_AMOUNTS;
+        int payCount;
+        long unpaid;
+
+        Entry(Order order, long value, int optionCount) {
+            this.order = order;
+            this.value = value;
+            this.method = new int[optionCount];
+            this.type = new byte[optionCount];
+            this.cost = new long[optionCount];
+            this.key = new long[optionCount];
+        }
+
+        long chosenKey() { return choice < 0 ? Long.MIN_VALUE : key[choice]; }
+
+        // Best-ranked option on the method, or -1.
+        int firstOn(int m) {
+            for (int i = 0; i < method.length; i++) {
+                if (method[i] == m) return i;
+            }
+            return -1;
+        }
+
+        long paidOn(int m) {
+            for (int i = 0; i < payCount; i++) {
+                if (payMethod[i] == m) return payAmount[i];
+            }
+            return 0;
+        }
+
+        void pay(int m, long amount) {
+            for (int i = 0; i < payCount; i++) {
+                if (payMethod[i] == m) {
+                    payAmount[i] += amount;
+                    return;
+                }
+            }
+            if (payCount == payMethod.length) {
+                int cap = Math.max(2, payCount * 2);
+                payMethod = Arrays.copyOf(payMethod, cap);
+                payAmount = Arrays.copyOf(payAmount, cap);
+            }
+            payMethod[payCount] = m;
+            payAmount[payCount] = amount;
+            payCount++;
+        }
+
+        void refund(int m, long amount) {
+            for (int i = 0; i < payCount; i++) {
+                if (payMethod[i] == m) {
+                    payAmount[i] -= amount;
+                    if (payAmount[i] == 0) {
+                        payCount--;
+                        payMethod[i] = payMethod[payCount];
+                        payAmount[i] = payAmount[payCount];
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package pl.edu.agh.algorithm;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Column-oriented, growable store of assignment options with amounts in minor units.
+final class OptionBuffer {
+    private static final AssignmentOption.Type[] TYPES = AssignmentOption.Type.values();
+
+    int size;
+    int[] order;
+    int[] method;
+    byte[] type;
+    long[] profit;
+    long[] cost;
+    // density keys computed ahead of ranking, e.g. taken from OptionCache; null until set
+    long[] keys;
+
+    OptionBuffer(int capacity) {
+        int cap = Math.max(capacity, 16);
+        order = new int[cap];
+        method = new int[cap];
+        type = new byte[cap];
+        profit = new long[cap];
+        cost = new long[cap];
+    }
+
+    void add(int orderIdx, int methodIdx, AssignmentOption.Type optionType, long optionProfit, long optionCost) {
+        if (size == order.length) {
+            grow(size + 1);
+        }
+        order[size] = orderIdx;
+        method[size] = methodIdx;
+        type[size] = (byte) optionType.ordinal();
+        profit[size] = optionProfit;
+        cost[size] = optionCost;
+        size++;
+    }
+
+    // Appends a run of options of one order, e.g. copied from an earlier buffer.
+    void append(int orderIdx, int[] methods, byte[] types, long[] profits, long[] costs) {
+        int count = methods.length;
+        if (size + count > order.length) {
+            grow(size + count);
+        }
+        Arrays.fill(order, size, size + count, orderIdx);
+        System.arraycopy(methods, 0, method, size, count);
+        System.arraycopy(types, 0, type, size, count);
+        System.arraycopy(profits, 0, profit, size, count);
+        System.arraycopy(costs, 0, cost, size, count);
+        size += count;
+    }
+
+    static OptionBuffer concat(List<OptionBuffer> parts) {
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        int total = 0;
+        for (OptionBuffer part : parts) total += part.size;
+        OptionBuffer merged = new OptionBuffer(total);
+        for (OptionBuffer part : parts) {
+            System.arraycopy(part.order, 0, merged.order, merged.size, part.size);
+            System.arraycopy(part.method, 0, merged.method, merged.size, part.size);
+            System.arraycopy(part.type, 0, merged.type, merged.size, part.size);
+            System.arraycopy(part.profit, 0, merged.profit, merged.size, part.size);
+            System.arraycopy(part.cost, 0, merged.cost, merged.size, part.size);
+            merged.size += part.size;
+        }
+        return merged;
+    }
+
+    AssignmentOption.Type typeAt(int i) {
+        return TYPES[type[i]];
+    }
+
+    long[] densityKeys() {
+        if (keys != null) {
+            return keys;
+        }
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = FixedPoint.densityKey(profit[i], cost[i]);
+        }
+        return keys;
+    }
+
+    private void grow(int minCapacity) {
+        int cap = Math.max(minCapacity, order.length + (order.length >> 1));
+        order = Arrays.copyOf(order, cap);
+        method = Arrays.copyOf(method, cap);
+        type = Arrays.copyOf(type, cap);
+        profit = Arrays.copyOf(profit, cap);
+        cost = Arrays.copyOf(cost, cap);
+    }
+}
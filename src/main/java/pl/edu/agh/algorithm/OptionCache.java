@@ -0,0 +1,214 @@
+package pl.edu.agh.algorithm;
+
+import pl.edu.agh.metrics.Counter;
+import pl.edu.agh.metrics.MetricsRecorder;
+import pl.edu.agh.model.Order;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// LRU cache of generated options and their density keys per order, shared between runs of the fixed-point greedy.
+// Entries are keyed by the catalog content (method ids and rates, and the points split) together with the order's
+// id, value and promotions, so an entry is only reused where generation would produce exactly the same options.
+// Ranking still runs once over all options: a radix pass over the keys is linear, where merging per-order ranked
+// lists would cost a heap operation per option. At most MAX_CATALOGS catalogs are kept, least recently used first
+// out; an evicted catalog takes its entries with it, since no later key can match them.
+// Safe to share between concurrent runs; lookups and inserts take the lock once per run, generation does not.
+public final class OptionCache {
+    private static final int MAX_CATALOGS = 64;
+
+    private final int maxOrders;
+    private final LinkedHashMap<Key, Entry> entries;
+    private final LinkedHashMap<Catalog, Catalog> catalogs = new LinkedHashMap<>(16, 0.75f, true);
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public OptionCache(int maxOrders) {
+        if (maxOrders < 1) {
+            throw new IllegalArgumentException("Option cache must hold at least one order");
+        }
+        this.maxOrders = maxOrders;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > OptionCache.this.maxOrders) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized long getHits() { return hits; }
+
+    public synchronized long getMisses() { return misses; }
+
+    public synchronized long getEvictions() { return evictions; }
+
+    public synchronized int size() { return entries.size(); }
+
+    public int getMaxOrders() { return maxOrders; }
+
+    public synchronized void clear() {
+        entries.clear();
+        catalogs.clear();
+    }
+
+    // Same buffer FixedPointPaymentOptimizer.generate builds for the whole problem, with density keys filled in.
+    OptionBuffer generate(FixedPointProblem problem, List<Order> orders, PointsSplit split, MetricsRecorder metrics) {
+        int n = problem.orderCount;
+        Key[] keys = new Key[n];
+        Entry[] found = new Entry[n];
+        int hit = 0;
+        Catalog catalog;
+        synchronized (this) {
+            catalog = canonical(new Catalog(problem, split));
+            for (int o = 0; o < n; o++) {
+                Order order = orders.get(o);
+                keys[o] = new Key(catalog, order.getId(), problem.value[o], order.getPromotions());
+                found[o] = entries.get(keys[o]);
+                if (found[o] != null) hit++;
+            }
+            hits += hit;
+            misses += n - hit;
+        }
+        metrics.add(Counter.CACHE_HITS, hit);
+        metrics.add(Counter.CACHE_MISSES, n - hit);
+
+        OptionBuffer options = new OptionBuffer(n * FixedPointPaymentOptimizer.optionsPerOrder(problem, split));
+        long[] amounts = new long[split.maxOptions()];
+        int[] start = new int[n + 1];
+        for (int o = 0; o < n; o++) {
+            start[o] = options.size;
+            Entry entry = found[o];
+            if (entry == null) {
+                FixedPointPaymentOptimizer.generate(problem, o, split, amounts, options);
+            } else {
+                options.append(o, entry.method, entry.type, entry.profit, entry.cost);
+            }
+        }
+        start[n] = options.size;
+
+        long[] densityKeys = new long[options.size];
+        Entry[] created = new Entry[n];
+        for (int o = 0; o < n; o++) {
+            int from = start[o];
+            int to = start[o + 1];
+            if (found[o] != null) {
+                System.arraycopy(found[o].key, 0, densityKeys, from, to - from);
+                continue;
+            }
+            for (int i = from; i < to; i++) {
+                densityKeys[i] = FixedPoint.densityKey(options.profit[i], options.cost[i]);
+            }
+            created[o] = new Entry(Arrays.copyOfRange(options.method, from, to), Arrays.copyOfRange(options.type, from, to),
+                    Arrays.copyOfRange(options.profit, from, to), Arrays.copyOfRange(options.cost, from, to),
+                    Arrays.copyOfRange(densityKeys, from, to));
+        }
+        options.keys = densityKeys;
+
+        if (hit < n) {
+            synchronized (this) {
+                // a concurrent run may have evicted the catalog meanwhile; its entries could never be hit again
+                if (catalogs.get(catalog) != catalog) return options;
+                for (int o = 0; o < n; o++) {
+                    if (created[o] != null) entries.put(keys[o].detach(), created[o]);
+                }
+            }
+        }
+        return options;
+    }
+
+    // One instance per distinct catalog, so keys compare catalogs by reference.
+    private Catalog canonical(Catalog catalog) {
+        Catalog existing = catalogs.get(catalog);
+        if (existing != null) return existing;
+        if (catalogs.size() >= MAX_CATALOGS) {
+            Catalog eldest = catalogs.keySet().iterator().next();
+            catalogs.remove(eldest);
+            int before = entries.size();
+            entries.keySet().removeIf(key -> key.catalog == eldest);
+            evictions += before - entries.size();
+        }
+        catalogs.put(catalog, catalog);
+        return catalog;
+    }
+
+    private static final class Catalog {
+        private final String[] ids;
+        private final long[] rates;
+        private final PointsSplit split;
+        private final int hash;
+
+        Catalog(FixedPointProblem problem, PointsSplit split) {
+            int m = problem.registry.size();
+            this.ids = new String[m];
+            for (int j = 0; j < m; j++) ids[j] = problem.registry.getId(j);
+            this.rates = problem.rate.clone();
+            this.split = split;
+            this.hash = Objects.hash(Arrays.hashCode(ids), Arrays.hashCode(rates), split);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Catalog other && hash == other.hash && Arrays.equals(ids, other.ids)
+                    && Arrays.equals(rates, other.rates) && split.equals(other.split);
+        }
+
+        @Override
+        public int hashCode() { return hash; }
+    }
+
+    private static final class Key {
+        private final Catalog catalog;
+        private final String id;
+        private final long value;
+        private final List<String> promotions;
+        private final int hash;
+
+        Key(Catalog catalog, String id, long value, List<String> promotions) {
+            this.catalog = catalog;
+            this.id = id;
+            this.value = value;
+            this.promotions = promotions == null || promotions.isEmpty() ? List.of() : promotions;
+            this.hash = Objects.hash(System.identityHashCode(catalog), id, value, this.promotions);
+        }
+
+        // Copy that does not keep the caller's promotion list (e.g. an OrderStore view) alive.
+        Key detach() {
+            return new Key(catalog, id, value, Collections.unmodifiableList(new ArrayList<>(promotions)));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && hash == other.hash && catalog == other.catalog && value == other.value
+                    && id.equals(other.id) && promotions.equals(other.promotions);
+        }
+
+        @Override
+        public int hashCode() { return hash; }
+    }
+
+    private static final class Entry {
+        final int[] method;
+        final byte[] type;
+        final long[] profit;
+        final long[] cost;
+        final long[] key;
+
+        Entry(int[] method, byte[] type, long[] profit, long[] cost, long[] key) {
+            this.method = method;
+            this.type = type;
+            this.profit = profit;
+            this.cost = cost;
+            this.key = key;
+        }
+    }
+}
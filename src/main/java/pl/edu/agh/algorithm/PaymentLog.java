@@ -0,0 +1,24 @@
+package pl.edu.agh.algorithm;
+
+import java.util.Arrays;
+
+// Remainder payments of one run as parallel primitive columns: slot, method and amount in minor units.
+final class PaymentLog {
+    int[] slot = new int[16];
+    int[] method = new int[16];
+    long[] amount = new long[16];
+    int size;
+
+    void add(int s, int m, long paid) {
+        if (size == slot.length) {
+            int cap = size * 2;
+            slot = Arrays.copyOf(slot, cap);
+            method = Arrays.copyOf(method, cap);
+            amount = Arrays.copyOf(amount, cap);
+        }
+        slot[size] = s;
+        method[size] = m;
+        amount[size] = paid;
+        size++;
+    }
+}
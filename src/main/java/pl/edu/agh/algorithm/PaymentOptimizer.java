@@ -0,0 +1,11 @@
+package pl.edu.agh.algorithm;
+
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.PaymentMethod;
+
+import java.util.List;
+
+// Common entry point of all optimizers: charges the chosen payments to the given methods and returns them.
+public interface PaymentOptimizer {
+    List<PaymentMethod> optimizePayments(List<Order> orders, List<PaymentMethod> methods);
+}
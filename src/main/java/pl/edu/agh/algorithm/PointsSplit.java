@@ -0,0 +1,101 @@
+package pl.edu.agh.algorithm;
+
+import pl.edu.agh.exception.ErrorException;
+import pl.edu.agh.exception.WarningException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+// Which partial-points amounts become PARTIAL_POINTS options. Every one of them earns the same 10% discount, so
+// under the greedy the smallest qualifying amount always ranks first and larger grid steps only add sort entries.
+//   grid(step)  amounts at multiples of step% from 10% up to below 100% (grid(10) is the original nine options)
+//   minimal()   one option: the smallest amount that reaches 10% of the order value
+// There is no option for spending more points up front: remainders are paid from points first anyway, so a
+// larger amount only holds points back from other orders' 10% options.
+public final class PointsSplit {
+    public static final int QUALIFYING_PERCENT = 10;
+    public static final PointsSplit DEFAULT = grid(10);
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final int stepPercent;
+
+    private PointsSplit(int stepPercent) {
+        this.stepPercent = stepPercent;
+    }
+
+    public static PointsSplit grid(int stepPercent) {
+        if (stepPercent < 1 || stepPercent > 90) {
+            throw new ErrorException("Points grid step must be between 1 and 90 percent, got " + stepPercent);
+        }
+        return new PointsSplit(stepPercent);
+    }
+
+    public static PointsSplit minimal() {
+        return new PointsSplit(0);
+    }
+
+    // "grid:<step>" or "minimal", as given on the command line.
+    public static PointsSplit parse(String spec) throws WarningException {
+        if ("minimal".equals(spec)) return minimal();
+        if (spec.startsWith("grid:")) {
+            try {
+                return grid(Integer.parseInt(spec.substring("grid:".length())));
+            } catch (NumberFormatException | ErrorException e) {
+                throw new WarningException("Invalid points grid step: " + spec);
+            }
+        }
+        throw new WarningException("Unknown points split '" + spec + "'; expected grid:<step> or minimal");
+    }
+
+    int maxOptions() {
+        if (stepPercent == 0) {
+            return 1;
+        }
+        return (99 / stepPercent) - firstStep() + 1;
+    }
+
+    // Points amounts in minor units, ascending; returns how many were written to out.
+    int amounts(long value, long[] out) {
+        int count = 0;
+        if (stepPercent > 0) {
+            for (int k = firstStep(); k * stepPercent < 100; k++) {
+                out[count++] = FixedPoint.percent(value, k * stepPercent);
+            }
+            return count;
+        }
+        out[count++] = (value * QUALIFYING_PERCENT + 99) / 100;
+        return count;
+    }
+
+    // Same amounts for the BigDecimal greedy, at scale 2.
+    List<BigDecimal> amounts(BigDecimal value) {
+        List<BigDecimal> amounts = new ArrayList<>(maxOptions());
+        if (stepPercent > 0) {
+            for (int k = firstStep(); k * stepPercent < 100; k++) {
+                BigDecimal share = BigDecimal.valueOf(k * stepPercent).divide(HUNDRED);
+                amounts.add(value.multiply(share).setScale(2, RoundingMode.HALF_UP));
+            }
+            return amounts;
+        }
+        amounts.add(value.multiply(BigDecimal.valueOf(QUALIFYING_PERCENT)).divide(HUNDRED)
+                .setScale(2, RoundingMode.CEILING));
+        return amounts;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PointsSplit other && stepPercent == other.stepPercent;
+    }
+
+    @Override
+    public int hashCode() {
+        return stepPercent;
+    }
+
+    private int firstStep() {
+        return (QUALIFYING_PERCENT + stepPercent - 1) / stepPercent;
+    }
+}
@@ -0,0 +1,64 @@
+package pl.edu.agh.algorithm;
+
+import java.math.BigDecimal;
+
+// Slots that still owe money after assignment, in minor units. Each method pass compacts the list in place,
+// so fully paid orders are never visited again. Writes the amounts left back into the due array.
+final class RemainderWork {
+    private final long[] due;
+    private final PaymentLog log;
+    private int[] work;
+    private int size;
+
+    RemainderWork(long[] due, boolean largestDueFirst) {
+        this(due, largestDueFirst, null);
+    }
+
+    // Every payment is also recorded in the log when one is given.
+    RemainderWork(long[] due, boolean largestDueFirst, PaymentLog log) {
+        this.due = due;
+        this.log = log;
+        int[] unpaid = new int[due.length];
+        for (int s = 0; s < due.length; s++) {
+            if (due[s] > 0) unpaid[size++] = s;
+        }
+        if (largestDueFirst) {
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) keys[i] = due[unpaid[i]];
+            int[] ranked = DensityRanking.rankDescending(keys, size);
+            int[] sorted = new int[size];
+            for (int i = 0; i < size; i++) sorted[i] = unpaid[ranked[i]];
+            unpaid = sorted;
+        }
+        this.work = unpaid;
+    }
+
+    int size() { return size; }
+
+    void payFrom(int method, long[] remaining) {
+        long avail = remaining[method];
+        int kept = 0;
+        int i = 0;
+        for (; i < size && avail > 0; i++) {
+            int s = work[i];
+            long use = Math.min(due[s], avail);
+            avail -= use;
+            due[s] -= use;
+            if (log != null && use > 0) log.add(s, method, use);
+            if (due[s] > 0) work[kept++] = s;
+        }
+        if (kept != i) {
+            System.arraycopy(work, i, work, kept, size - i);
+            size -= i - kept;
+        }
+        remaining[method] = avail;
+    }
+
+    static BigDecimal[] decimals(long[] remaining) {
+        BigDecimal[] decimals = new BigDecimal[remaining.length];
+        for (int m = 0; m < remaining.length; m++) {
+            decimals[m] = FixedPoint.toDecimal(remaining[m]);
+        }
+        return decimals;
+    }
+}
@@ -0,0 +1,192 @@
+package pl.edu.agh.algorithm;
+
+import pl.edu.agh.exception.ErrorException;
+import pl.edu.agh.metrics.Counter;
+import pl.edu.agh.metrics.MetricsRecorder;
+import pl.edu.agh.metrics.Phase;
+import pl.edu.agh.model.Order;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+// The fixed-point greedy with each method's limit priced in. Plain density ranking spends a contended card on
+// whichever orders come first, and prefers a cheap 10% partial-points option over a card with a larger discount
+// even when that card has limit to spare. Here options are ranked by profit net of the price of the limit they
+// use (profit - price * cost), so orders with a good alternative step aside for those that depend on the
+// scarce method, and uncontended methods are ranked by plain discount.
+//
+// Pass 0 is the plain greedy. Its ranking gives the starting prices: for a method whose full-payment demand
+// exceeds its limit, the density of the first option that no longer fits (the clearing density). Later passes
+// move each price by the limit that was short or left over in the previous pass, with a halving step.
+// A pass is new keys, one radix ranking and one assignment, so the run stays linear in options times passes.
+// The pass with the largest discount wins, ties going to the earlier one, so the result is never worse than
+// FixedPointPaymentOptimizer.
+public class ScarcityPaymentOptimizer extends MinorUnitOptimizer {
+    private static final Logger logger = Logger.getLogger(ScarcityPaymentOptimizer.class.getName());
+
+    public static final int DEFAULT_PASSES = 8;
+    // smallest first price step, used when no method looks contended after pass 0: a tenth of a unit of density
+    private static final long MIN_STEP = FixedPoint.DENSITY_UNIT / 10;
+    // net profit keys keep 1/1024 of a minor unit
+    private static final double NET_KEY_SCALE = 1024;
+    private static final byte PARTIAL = (byte) AssignmentOption.Type.PARTIAL_POINTS.ordinal();
+
+    private final int passes;
+    private final AllocationPolicy policy;
+    private final PointsSplit split;
+
+    public ScarcityPaymentOptimizer() {
+        this(DEFAULT_PASSES);
+    }
+
+    public ScarcityPaymentOptimizer(int passes) {
+        this(passes, AllocationPolicy.CATALOG_ORDER, PointsSplit.DEFAULT);
+    }
+
+    public ScarcityPaymentOptimizer(int passes, AllocationPolicy policy, PointsSplit split) {
+        if (passes < 1) {
+            throw new ErrorException("Scarcity ranking needs at least one pass");
+        }
+        this.passes = passes;
+        this.policy = policy;
+        this.split = split;
+    }
+
+    @Override
+    public BudgetLedger optimize(List<Order> orders, BudgetLedger ledger) {
+        return optimize(orders, ledger, MetricsRecorder.DISABLED);
+    }
+
+    @Override
+    public BudgetLedger optimize(List<Order> orders, BudgetLedger ledger, MetricsRecorder metrics) {
+        FixedPointProblem problem = FixedPointProblem.of(orders, ledger);
+        if (problem.pointsIndex < 0) {
+            logger.warning("No points method found; partial/full points options disabled");
+        }
+        long[] remaining = ledger.remaining;
+
+        long start = metrics.start();
+        OptionBuffer options = FixedPointPaymentOptimizer.generate(problem, 0, problem.orderCount, split);
+        metrics.stop(Phase.GENERATE, start);
+        metrics.add(Counter.OPTIONS_GENERATED, options.size);
+
+        Pass best = search(problem, options, remaining, passes, Long.MAX_VALUE, metrics);
+        metrics.add(Counter.OPTIONS_REJECTED, best.rejected);
+        metrics.add(Counter.DISCOUNT_GAINED, best.gain);
+
+        System.arraycopy(best.remaining, 0, remaining, 0, remaining.length);
+        FixedPointPaymentOptimizer.payDue(problem, best.assignment, remaining, policy, null, metrics);
+        return ledger;
+    }
+
+    // Runs up to the given number of passes on copies of limit, stopping early at the deadline (System.nanoTime)
+    // once pass 0 is done, and returns the best one.
+    static Pass search(FixedPointProblem problem, OptionBuffer options, long[] limit, int passes, long deadlineNanos,
+                       MetricsRecorder metrics) {
+        long[] density = options.densityKeys();
+        long[] price = new long[limit.length];
+        long[] keys = density;
+        Pass best = null;
+        long plain = 0;
+        long step = 0;
+        for (int p = 0; p < passes; p++) {
+            if (p > 0 && System.nanoTime() > deadlineNanos) break;
+            long start = metrics.start();
+            if (p > 0) {
+                keys = netKeys(options, price, keys == density ? new long[options.size] : keys);
+            }
+            int[] ranking = DensityRanking.rankDescending(keys, options.size);
+            metrics.stop(Phase.SORT, start);
+
+            start = metrics.start();
+            Pass pass = new Pass(problem, options, ranking, limit);
+            metrics.stop(Phase.ASSIGN, start);
+            if (best == null || pass.discount > best.discount) best = pass;
+
+            if (p == 0) {
+                plain = pass.discount;
+                clearingPrices(options, density, ranking, limit, price);
+                step = MIN_STEP;
+                for (long initial : price) step = Math.max(step, initial);
+            } else {
+                step /= 2;
+                if (step == 0 || !adjust(price, pass, limit, step)) break;
+            }
+        }
+        best.gain = best.discount - plain;
+        return best;
+    }
+
+    // profit - price * cost per option; price * cost can overflow a long, so the product is taken in doubles.
+    private static long[] netKeys(OptionBuffer options, long[] price, long[] keys) {
+        for (int i = 0; i < options.size; i++) {
+            double unitPrice = (double) price[options.method[i]] / FixedPoint.DENSITY_UNIT;
+            keys[i] = (long) Math.floor((options.profit[i] - options.cost[i] * unitPrice) * NET_KEY_SCALE);
+        }
+        return keys;
+    }
+
+    // Walks the plain ranking adding up each method's demand for paying whole orders (card and full points
+    // options; partial points are left out so an order is counted once). Where demand outgrows the limit, the
+    // density of the option that crossed it becomes the method's price.
+    private static void clearingPrices(OptionBuffer options, long[] density, int[] ranking, long[] limit,
+                                       long[] price) {
+        long[] demand = new long[limit.length];
+        boolean[] priced = new boolean[limit.length];
+        for (int r : ranking) {
+            int j = options.method[r];
+            if (priced[j] || options.type[r] == PARTIAL) continue;
+            demand[j] += options.cost[r];
+            if (demand[j] > limit[j]) {
+                priced[j] = true;
+                price[j] = Math.max(density[r], 0);
+            }
+        }
+    }
+
+    // Subgradient step: a method that turned options away gets dearer, one that kept limit unused gets cheaper,
+    // both in proportion to the amount relative to its limit. Returns false once no price moves.
+    private static boolean adjust(long[] price, Pass pass, long[] limit, long step) {
+        boolean moved = false;
+        for (int j = 0; j < price.length; j++) {
+            if (limit[j] <= 0) continue;
+            double gap = (double) (pass.shortfall[j] - pass.remaining[j]) / limit[j];
+            long next = Math.max(0, price[j] + (long) (step * Math.max(-1.0, Math.min(1.0, gap))));
+            if (next != price[j]) {
+                price[j] = next;
+                moved = true;
+            }
+        }
+        return moved;
+    }
+
+    // One greedy assignment on a copy of the limits, with the cost of options turned away per method.
+    static final class Pass {
+        final Assignment assignment;
+        final long[] remaining;
+        final long[] shortfall;
+        final long discount;
+        long rejected;
+        // discount over pass 0 when returned by search
+        long gain;
+
+        Pass(FixedPointProblem problem, OptionBuffer options, int[] ranking, long[] limit) {
+            assignment = new Assignment(problem.slotCount);
+            remaining = limit.clone();
+            shortfall = new long[limit.length];
+            for (int r : ranking) {
+                int s = problem.slot[options.order[r]];
+                if (assignment.isAssigned(s)) continue;
+                int j = options.method[r];
+                if (options.cost[r] <= remaining[j]) {
+                    assignment.set(s, j, options.type[r], options.profit[r], options.cost[r]);
+                    remaining[j] -= options.cost[r];
+                } else {
+                    shortfall[j] += options.cost[r] - remaining[j];
+                    rejected++;
+                }
+            }
+            discount = FixedPointPaymentOptimizer.discount(problem, assignment);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package pl.edu.agh.algorithm;
+
+import pl.edu.agh.exception.ErrorException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+// Splits an index range into contiguous shards, runs them on an executor and returns results in shard order,
+// so merging them gives the same sequence as a single sequential pass.
+final class Sharding {
+    static final int MIN_SHARD_SIZE = 4096;
+    private static final int SHARDS_PER_CORE = 4;
+
+    interface RangeTask<T> {
+        T run(int from, int to);
+    }
+
+    private Sharding() {
+    }
+
+    static <T> List<T> run(ExecutorService executor, int size, RangeTask<T> task) {
+        int shards = shardCount(executor, size);
+        if (shards == 1) {
+            return List.of(task.run(0, size));
+        }
+        List<Future<T>> futures = new ArrayList<>(shards);
+        for (int s = 0; s < shards; s++) {
+            int from = (int) ((long) size * s / shards);
+            int to = (int) ((long) size * (s + 1) / shards);
+            futures.add(executor.submit(() -> task.run(from, to)));
+        }
+        return collect(futures);
+    }
+
+    // One task per index, results in index order; null runs them on the calling thread.
+    static <T> List<T> each(ExecutorService executor, int count, IntFunction<T> task) {
+        List<T> results = new ArrayList<>(count);
+        if (executor == null || count < 2) {
+            for (int i = 0; i < count; i++) {
+                results.add(task.apply(i));
+            }
+            return results;
+        }
+        List<Future<T>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> task.apply(index)));
+        }
+        return collect(futures);
+    }
+
+    private static <T> List<T> collect(List<Future<T>> futures) {
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new ErrorException("Interrupted while waiting for parallel tasks", e);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new ErrorException("Parallel task failed", e.getCause());
+        }
+        return results;
+    }
+
+    private static int shardCount(ExecutorService executor, int size) {
+        if (executor == null || size < 2 * MIN_SHARD_SIZE) {
+            return 1;
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Math.min(size / MIN_SHARD_SIZE, cores * SHARDS_PER_CORE));
+    }
+}
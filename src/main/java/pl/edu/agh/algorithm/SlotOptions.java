@@ -0,0 +1,109 @@
+package pl.edu.agh.algorithm;
+
+import java.util.Arrays;
+
+// Non-dominated options of every order slot in CSR layout: options of slot s are [start[s], start[s + 1]).
+// Only the 10% partial split is kept, since larger splits earn the same discount for more points.
+final class SlotOptions {
+    final int[] start;
+    final int[] method;
+    final byte[] type;
+    final long[] profit;
+    final long[] cost;
+
+    private SlotOptions(int[] start, int[] method, byte[] type, long[] profit, long[] cost) {
+        this.start = start;
+        this.method = method;
+        this.type = type;
+        this.profit = profit;
+        this.cost = cost;
+    }
+
+    static SlotOptions of(FixedPointProblem problem) {
+        OptionBuffer candidates = new OptionBuffer(problem.orderCount * 3);
+        int points = problem.pointsIndex;
+        for (int o = 0; o < problem.orderCount; o++) {
+            long value = problem.value[o];
+            for (int card : problem.promotions[o]) {
+                long profit = FixedPoint.applyRate(value, problem.rate[card]);
+                candidates.add(o, card, AssignmentOption.Type.CARD, profit, value - profit);
+            }
+            if (points >= 0) {
+                long tenth = FixedPoint.tenths(value, 1);
+                candidates.add(o, points, AssignmentOption.Type.PARTIAL_POINTS, tenth, tenth);
+                long fullProfit = FixedPoint.applyRate(value, problem.rate[points]);
+                candidates.add(o, points, AssignmentOption.Type.FULL_POINTS, fullProfit, value - fullProfit);
+            }
+        }
+
+        int slots = problem.slotCount;
+        int[] counts = new int[slots];
+        boolean[] keep = new boolean[candidates.size];
+        for (int i = 0; i < candidates.size; i++) {
+            keep[i] = candidates.profit[i] > 0 && candidates.cost[i] >= 0
+                    && candidates.cost[i] <= problem.limit[candidates.method[i]]
+                    && !isDominated(candidates, i);
+            if (keep[i]) counts[problem.slot[candidates.order[i]]]++;
+        }
+        int[] start = new int[slots + 1];
+        for (int s = 0; s < slots; s++) {
+            start[s + 1] = start[s] + counts[s];
+        }
+        int total = start[slots];
+        int[] method = new int[total];
+        byte[] type = new byte[total];
+        long[] profit = new long[total];
+        long[] cost = new long[total];
+        int[] fill = Arrays.copyOf(start, slots);
+        for (int i = 0; i < candidates.size; i++) {
+            if (!keep[i]) continue;
+            int at = fill[problem.slot[candidates.order[i]]]++;
+            method[at] = candidates.method[i];
+            type[at] = candidates.type[i];
+            profit[at] = candidates.profit[i];
+            cost[at] = candidates.cost[i];
+        }
+        return new SlotOptions(start, method, type, profit, cost);
+    }
+
+    int slotCount() {
+        return start.length - 1;
+    }
+
+    // Same order, same method, no more profit for no less cost (earlier index wins ties).
+    private static boolean isDominated(OptionBuffer c, int i) {
+        int o = c.order[i];
+        for (int j = i - 1; j >= 0 && c.order[j] == o; j--) {
+            if (dominates(c, j, i)) return true;
+        }
+        for (int j = i + 1; j < c.size && c.order[j] == o; j++) {
+            if (dominates(c, j, i) && !(c.profit[j] == c.profit[i] && c.cost[j] == c.cost[i])) return true;
+        }
+        return false;
+    }
+
+    private static boolean dominates(OptionBuffer c, int a, int b) {
+        return c.method[a] == c.method[b] && c.profit[a] >= c.profit[b] && c.cost[a] <= c.cost[b];
+    }
+
+    // Insertion sort of one slot's options by the given scores (indexed from start[slot]), descending.
+    void sortSlot(int slot, double[] score) {
+        int from = start[slot];
+        int to = start[slot + 1];
+        for (int i = from + 1; i < to; i++) {
+            for (int j = i; j > from && score[j - from] > score[j - 1 - from]; j--) {
+                swap(j, j - 1);
+                double sc = score[j - from];
+                score[j - from] = score[j - 1 - from];
+                score[j - 1 - from] = sc;
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        int m = method[a]; method[a] = method[b]; method[b] = m;
+        byte t = type[a]; type[a] = type[b]; type[b] = t;
+        long p = profit[a]; profit[a] = profit[b]; profit[b] = p;
+        long c = cost[a]; cost[a] = cost[b]; cost[b] = c;
+    }
+}
@@ -0,0 +1,108 @@
+package pl.edu.agh.batch;
+
+import pl.edu.agh.exception.WarningException;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// One (orders, payment methods) pair and the file its result is written to.
+public final class BatchJob {
+    static final String ORDERS_SUFFIX = "-orders.json";
+    static final String METHODS_SUFFIX = "-paymentmethods.json";
+    static final String RESULT_SUFFIX = ".txt";
+
+    private final String name;
+    private final Path ordersPath;
+    private final Path methodsPath;
+    private final Path outputPath;
+
+    public BatchJob(String name, Path ordersPath, Path methodsPath, Path outputPath) {
+        this.name = name;
+        this.ordersPath = ordersPath;
+        this.methodsPath = methodsPath;
+        this.outputPath = outputPath;
+    }
+
+    public String getName() { return name; }
+    public Path getOrdersPath() { return ordersPath; }
+    public Path getMethodsPath() { return methodsPath; }
+    public Path getOutputPath() { return outputPath; }
+
+    // Pairs <name>-orders.json with <name>-paymentmethods.json in the directory; results go to <name>.txt.
+    public static List<BatchJob> fromDirectory(Path dir, Path outputDir) throws IOException, WarningException {
+        List<Path> ordersFiles = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + ORDERS_SUFFIX)) {
+            files.forEach(ordersFiles::add);
+        }
+        ordersFiles.sort(null);
+        List<BatchJob> jobs = new ArrayList<>(ordersFiles.size());
+        for (Path orders : ordersFiles) {
+            String fileName = orders.getFileName().toString();
+            String name = fileName.substring(0, fileName.length() - ORDERS_SUFFIX.length());
+            Path methods = dir.resolve(name + METHODS_SUFFIX);
+            if (!Files.exists(methods)) {
+                throw new WarningException("No payment methods file for " + orders + " (expected " + methods + ")");
+            }
+            jobs.add(new BatchJob(name, orders, methods, outputDir.resolve(name + RESULT_SUFFIX)));
+        }
+        if (jobs.isEmpty()) {
+            throw new WarningException("No *" + ORDERS_SUFFIX + " files in " + dir);
+        }
+        return jobs;
+    }
+
+    // One job per line: "<orders> <paymentmethods> [name]"; relative paths resolve against the manifest's
+    // directory, blank lines and lines starting with # are skipped. The name defaults to the orders file name;
+    // defaulted names that clash (a/orders.json, b/orders.json) get a -2, -3, ... suffix, while two jobs given
+    // the same name explicitly are rejected, since they would write to the same result file.
+    public static List<BatchJob> fromManifest(Path manifest, Path outputDir) throws IOException, WarningException {
+        Path base = manifest.toAbsolutePath().getParent();
+        List<String[]> lines = new ArrayList<>();
+        Set<String> explicit = new HashSet<>();
+        int lineNo = 0;
+        for (String line : Files.readAllLines(manifest)) {
+            lineNo++;
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+            String[] fields = trimmed.split("\\s+");
+            if (fields.length < 2 || fields.length > 3) {
+                throw new WarningException("Manifest line " + lineNo + " must be '<orders> <paymentmethods> [name]'");
+            }
+            if (fields.length == 3 && !explicit.add(fields[2])) {
+                throw new WarningException("Manifest line " + lineNo + " repeats job name '" + fields[2] + "'");
+            }
+            lines.add(fields);
+        }
+        if (lines.isEmpty()) {
+            throw new WarningException("Manifest lists no jobs: " + manifest);
+        }
+
+        Set<String> used = new HashSet<>(explicit);
+        List<BatchJob> jobs = new ArrayList<>(lines.size());
+        for (String[] fields : lines) {
+            Path orders = base.resolve(fields[0]);
+            String name = fields.length == 3 ? fields[2] : uniqueName(stripExtension(orders.getFileName().toString()), used);
+            jobs.add(new BatchJob(name, orders, base.resolve(fields[1]), outputDir.resolve(name + RESULT_SUFFIX)));
+        }
+        return jobs;
+    }
+
+    private static String uniqueName(String name, Set<String> used) {
+        String unique = name;
+        for (int n = 2; !used.add(unique); n++) {
+            unique = name + "-" + n;
+        }
+        return unique;
+    }
+
+    private static String stripExtension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+}
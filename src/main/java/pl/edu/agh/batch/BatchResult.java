@@ -0,0 +1,19 @@
+package pl.edu.agh.batch;
+
+// Outcome of one job; error is null when the result file was written.
+public final class BatchResult {
+    private final BatchJob job;
+    private final String error;
+    private final long nanos;
+
+    BatchResult(BatchJob job, String error, long nanos) {
+        this.job = job;
+        this.error = error;
+        this.nanos = nanos;
+    }
+
+    public BatchJob getJob() { return job; }
+    public boolean isSuccess() { return error == null; }
+    public String getError() { return error; }
+    public long getNanos() { return nanos; }
+}
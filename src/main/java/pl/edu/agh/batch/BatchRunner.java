@@ -0,0 +1,254 @@
+package pl.edu.agh.batch;
+
+import pl.edu.agh.algorithm.AllocationPolicy;
+import pl.edu.agh.algorithm.FixedPoint;
+import pl.edu.agh.algorithm.GreedyPaymentOptimizer;
+import pl.edu.agh.algorithm.MethodRegistry;
+import pl.edu.agh.algorithm.MinorUnitOptimizer;
+import pl.edu.agh.algorithm.PointsSplit;
+import pl.edu.agh.exception.ErrorException;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.factory.OrderFactory;
+import pl.edu.agh.factory.OrderSnapshot;
+import pl.edu.agh.factory.PaymentMethodFactory;
+import pl.edu.agh.metrics.MetricsRecorder;
+import pl.edu.agh.metrics.MetricsSink;
+import pl.edu.agh.metrics.Phase;
+import pl.edu.agh.metrics.RunMetrics;
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.PaymentMethod;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+// Runs many independent jobs as a two-stage pipeline on one fixed pool: parser threads read jobs and hand parsed
+// batches to optimizer threads through a bounded queue. A full queue blocks the parsers, so at most
+// parsers + queue capacity + optimizers batches are in memory at once, however many jobs there are.
+// With a single thread there is no pipeline: that thread parses and optimizes each job in turn.
+// Each result file is written (via a temporary file and a move) as soon as its job finishes.
+public final class BatchRunner {
+    private static final Logger logger = Logger.getLogger(BatchRunner.class.getName());
+    private static final long HANDOFF_WAIT_MS = 100;
+
+    private final int parseThreads;
+    private final int optimizeThreads;
+    private final MinorUnitOptimizer optimizer;
+    private final PointsSplit split;
+    private final MetricsSink metricsSink;
+
+    public BatchRunner(int threads, MinorUnitOptimizer optimizer) {
+        this(threads, optimizer, PointsSplit.DEFAULT, null);
+    }
+
+    // threads is the total split between the two stages; the optimizer must be safe to share between threads.
+    // split applies to jobs that fall back to the BigDecimal greedy; metricsSink, when not null, gets one record
+    // per successful job, in job order, once the batch is done.
+    public BatchRunner(int threads, MinorUnitOptimizer optimizer, PointsSplit split, MetricsSink metricsSink) {
+        if (threads < 1 || optimizer == null || split == null) {
+            throw new ErrorException("Batch runner needs at least one thread, an optimizer and a points split");
+        }
+        this.parseThreads = Math.max(1, threads / 2);
+        this.optimizeThreads = threads - parseThreads;
+        this.optimizer = optimizer;
+        this.split = split;
+        this.metricsSink = metricsSink;
+    }
+
+    // Results in job order; failed jobs are reported, not thrown, so one bad file does not stop the batch.
+    // An Error on any worker cancels the rest of the batch and is rethrown here.
+    public List<BatchResult> run(List<BatchJob> jobs) throws InterruptedException {
+        int n = jobs.size();
+        BatchResult[] results = new BatchResult[n];
+        RunMetrics[] runs = new RunMetrics[n];
+        BlockingQueue<Parsed> ready = new ArrayBlockingQueue<>(Math.max(1, optimizeThreads));
+        AtomicInteger next = new AtomicInteger();
+        AtomicReference<Error> failure = new AtomicReference<>();
+        CountDownLatch parsersDone = new CountDownLatch(parseThreads);
+        ExecutorService pool = Executors.newFixedThreadPool(parseThreads + optimizeThreads);
+        try {
+            for (int t = 0; t < parseThreads; t++) {
+                pool.execute(() -> {
+                    try {
+                        for (int i = next.getAndIncrement(); i < n; i = next.getAndIncrement()) {
+                            Parsed parsed = parse(i, jobs.get(i), metricsSink != null);
+                            if (parsed.error != null) {
+                                results[i] = fail(jobs.get(i), parsed.error, parsed.start);
+                            } else if (optimizeThreads == 0) {
+                                results[i] = optimizeAndWrite(parsed, runs);
+                            } else if (!hand(ready, parsed, failure)) {
+                                break;
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (Error e) {
+                        cancel(pool, failure, e);
+                        throw e;
+                    } finally {
+                        parsersDone.countDown();
+                    }
+                });
+            }
+            for (int t = 0; t < optimizeThreads; t++) {
+                pool.execute(() -> {
+                    try {
+                        for (Parsed parsed = ready.take(); parsed != Parsed.END; parsed = ready.take()) {
+                            results[parsed.index] = optimizeAndWrite(parsed, runs);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (Error e) {
+                        cancel(pool, failure, e);
+                        throw e;
+                    }
+                });
+            }
+            parsersDone.await();
+            for (int t = 0; t < optimizeThreads && hand(ready, Parsed.END, failure); t++) {
+                // one END per optimizer thread
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // a worker failed and shut the pool down before the rest were started
+            if (failure.get() == null) throw e;
+        } finally {
+            pool.shutdownNow();
+        }
+        if (failure.get() != null) {
+            // let interrupted workers finish their current job before the error leaves run
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            throw failure.get();
+        }
+        if (metricsSink != null) {
+            for (RunMetrics run : runs) {
+                if (run != null) metricsSink.record(run);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    // Waits for room in the queue, but gives up once a worker has failed, since nobody may be left to take it.
+    private static boolean hand(BlockingQueue<Parsed> ready, Parsed parsed, AtomicReference<Error> failure)
+            throws InterruptedException {
+        while (failure.get() == null) {
+            if (ready.offer(parsed, HANDOFF_WAIT_MS, TimeUnit.MILLISECONDS)) return true;
+        }
+        return false;
+    }
+
+    // Records the first failure and interrupts every worker, so parsers and optimizers blocked on the queue stop.
+    private static void cancel(ExecutorService pool, AtomicReference<Error> failure, Error e) {
+        failure.compareAndSet(null, e);
+        pool.shutdownNow();
+    }
+
+    private static Parsed parse(int index, BatchJob job, boolean measure) {
+        long start = System.nanoTime();
+        MetricsRecorder metrics = measure ? new MetricsRecorder() : MetricsRecorder.DISABLED;
+        try {
+            List<Order> orders = OrderSnapshot.isSnapshot(job.getOrdersPath())
+                    ? OrderFactory.fromSnapshot(job.getOrdersPath())
+                    : OrderFactory.fromJson(job.getOrdersPath());
+            List<PaymentMethod> methods = PaymentMethodFactory.fromJson(job.getMethodsPath());
+            metrics.stop(Phase.PARSE, start);
+            return new Parsed(index, job, orders, methods, metrics, null, start);
+        } catch (IOException | WarningException | RuntimeException e) {
+            return new Parsed(index, job, null, null, metrics, e.getMessage(), start);
+        }
+    }
+
+    private BatchResult optimizeAndWrite(Parsed parsed, RunMetrics[] runs) {
+        BatchJob job = parsed.job;
+        try {
+            write(job.getOutputPath(), resultLines(parsed, runs));
+            return new BatchResult(job, null, System.nanoTime() - parsed.start);
+        } catch (IOException | RuntimeException e) {
+            runs[parsed.index] = null;
+            return fail(job, e.getMessage(), parsed.start);
+        }
+    }
+
+    // Same lines Main prints for a single run; the run's metrics, when measured, go to runs.
+    private List<String> resultLines(Parsed parsed, RunMetrics[] runs) {
+        List<String> lines = new ArrayList<>();
+        MetricsRecorder metrics = parsed.metrics;
+        MethodRegistry registry = new MethodRegistry(parsed.methods);
+        if (MinorUnitOptimizer.supports(parsed.orders, registry)) {
+            long[] used = optimizer.optimize(parsed.orders, registry.newLedger(), metrics).getUsed();
+            for (int i = 0; i < registry.size(); i++) {
+                if (used[i] > 0) {
+                    lines.add(registry.getId(i) + " " + FixedPoint.toDecimal(used[i]));
+                }
+            }
+            if (metrics.isEnabled()) runs[parsed.index] = metrics.finish(registry, used);
+            return lines;
+        }
+        new GreedyPaymentOptimizer(null, AllocationPolicy.CATALOG_ORDER, split).optimize(parsed.orders, registry, metrics);
+        for (PaymentMethod pm : parsed.methods) {
+            BigDecimal used = pm.getLimit().subtract(pm.getRemaining());
+            if (used.compareTo(BigDecimal.ZERO) > 0) {
+                lines.add(pm.getId() + " " + used.setScale(2, RoundingMode.HALF_UP));
+            }
+        }
+        if (metrics.isEnabled()) runs[parsed.index] = metrics.finish(parsed.methods);
+        return lines;
+    }
+
+    private static void write(Path output, List<String> lines) throws IOException {
+        Path dir = output.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, output.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, lines);
+            Files.move(tmp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static BatchResult fail(BatchJob job, String error, long start) {
+        logger.warning("Batch job " + job.getName() + " failed: " + error);
+        return new BatchResult(job, error == null ? "unknown error" : error, System.nanoTime() - start);
+    }
+
+    private static final class Parsed {
+        static final Parsed END = new Parsed(-1, null, null, null, null, null, 0);
+
+        final int index;
+        final BatchJob job;
+        final List<Order> orders;
+        final List<PaymentMethod> methods;
+        final MetricsRecorder metrics;
+        final String error;
+        final long start;
+
+        Parsed(int index, BatchJob job, List<Order> orders, List<PaymentMethod> methods, MetricsRecorder metrics,
+               String error, long start) {
+            this.index = index;
+            this.job = job;
+            this.orders = orders;
+            this.methods = methods;
+            this.metrics = metrics;
+            this.error = error;
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package pl.edu.agh.factory;
+
+import pl.edu.agh.algorithm.AllocationSink;
+import pl.edu.agh.model.Allocation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Streams allocation rows to a file through one reusable direct buffer, so rows go to disk as they are produced:
+//   JSONL  {"order":"ORDER1","method":"mZysk","amount":150.00}
+//   CSV    order,method,amount header, then ORDER1,mZysk,150.00
+public final class AllocationWriter implements AllocationSink, Closeable {
+    public enum Format { JSONL, CSV }
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final FileChannel channel;
+    private final Format format;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final StringBuilder row = new StringBuilder(128);
+    private long rows;
+
+    private AllocationWriter(FileChannel channel, Format format) {
+        this.channel = channel;
+        this.format = format;
+    }
+
+    public static AllocationWriter open(Path path, Format format) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        AllocationWriter writer = new AllocationWriter(channel, format);
+        if (format == Format.CSV) {
+            writer.row.append("order,method,amount\n");
+            writer.put();
+        }
+        return writer;
+    }
+
+    // CSV for a .csv file name, JSON Lines otherwise.
+    public static Format formatOf(Path path) {
+        return String.valueOf(path.getFileName()).toLowerCase().endsWith(".csv") ? Format.CSV : Format.JSONL;
+    }
+
+    public void write(Allocation allocation) throws IOException {
+        accept(allocation.getOrderId(), allocation.getMethodId(), allocation.getAmountMinor());
+    }
+
+    @Override
+    public void accept(String orderId, String methodId, long amount) throws IOException {
+        if (format == Format.CSV) {
+            appendCsv(orderId).append(',');
+            appendCsv(methodId).append(',');
+            appendAmount(amount).append('\n');
+        } else {
+            row.append("{\"order\":");
+            appendJson(orderId).append(",\"method\":");
+            appendJson(methodId).append(",\"amount\":");
+            appendAmount(amount).append("}\n");
+        }
+        put();
+        rows++;
+    }
+
+    public long getRows() { return rows; }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void put() throws IOException {
+        CharBuffer chars = CharBuffer.wrap(row);
+        encoder.reset();
+        CoderResult result = encoder.encode(chars, buffer, true);
+        while (result.isOverflow()) {
+            flush();
+            result = encoder.encode(chars, buffer, true);
+        }
+        if (result.isError()) {
+            result.throwException();
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            flush();
+        }
+        row.setLength(0);
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private StringBuilder appendAmount(long amount) {
+        long units = amount / 100;
+        int cents = (int) Math.abs(amount % 100);
+        if (amount < 0 && units == 0) row.append('-');
+        return row.append(units).append('.').append((char) ('0' + cents / 10)).append((char) ('0' + cents % 10));
+    }
+
+    private StringBuilder appendJson(String text) {
+        row.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                row.append('\\').append(c);
+            } else if (c < 0x20) {
+                row.append(String.format("\\u%04x", (int) c));
+            } else {
+                row.append(c);
+            }
+        }
+        return row.append('"');
+    }
+
+    private StringBuilder appendCsv(String text) {
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return row.append(text);
+        }
+        row.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') row.append('"');
+            row.append(c);
+        }
+        return row.append('"');
+    }
+}
@@ -0,0 +1,41 @@
+package pl.edu.agh.factory;
+
+// Finds bad numbers without throwing NumberFormatException: optional sign, ASCII digits with at most one point and an
+// optional exponent of at most nine digits. That is a subset of what new BigDecimal(String) accepts (it also takes
+// non-ASCII digits and longer exponents that fit an int), and everything accepted here parses.
+final class DecimalSyntax {
+    private static final int MAX_EXPONENT_DIGITS = 9;
+
+    private DecimalSyntax() {
+    }
+
+    static boolean isDecimal(String text) {
+        int n = text.length();
+        int i = 0;
+        if (i < n && (text.charAt(i) == '+' || text.charAt(i) == '-')) i++;
+        int digits = 0;
+        boolean point = false;
+        for (; i < n; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) return false;
+        if (i == n) return true;
+        if (text.charAt(i) != 'e' && text.charAt(i) != 'E') return false;
+        i++;
+        if (i < n && (text.charAt(i) == '+' || text.charAt(i) == '-')) i++;
+        int exponentDigits = 0;
+        for (; i < n; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') return false;
+            exponentDigits++;
+        }
+        return exponentDigits > 0 && exponentDigits <= MAX_EXPONENT_DIGITS;
+    }
+}
@@ -5,73 +5,145 @@ import pl.edu.agh.exception.WarningException;
 import pl.edu.agh.exception.ErrorException;
 
 import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.logging.Logger;
+import java.util.function.Consumer;
 
 public class OrderFactory {
-    private static final Logger logger = Logger.getLogger(OrderFactory.class.getName());
+    static final ObjectMapper mapper = new ObjectMapper();
 
     public static List<Order> fromJson(Path path) throws IOException, WarningException, ErrorException {
+        RejectReport report = new RejectReport(String.valueOf(path.getFileName()));
+        List<Order> orders = fromJson(path, report);
+        report.logSummary();
+        return orders;
+    }
+
+    // Skipped entries are counted in the report instead of logged one by one.
+    public static List<Order> fromJson(Path path, RejectReport report) throws IOException, WarningException, ErrorException {
+        List<Order> orders = new ArrayList<>();
+        forEach(path, orders::add, report);
+        return orders;
+    }
+
+    // Reads orders written by OrderSnapshot.write (e.g. via --convert) instead of parsing JSON.
+    // The orders are flyweight views over the mapped file; ids and values are decoded only when read.
+    public static List<Order> fromSnapshot(Path path) throws IOException, WarningException, ErrorException {
+        return OrderSnapshot.open(path).asList();
+    }
+
+    public static void forEach(Path path, Consumer<Order> sink) throws IOException, WarningException, ErrorException {
+        RejectReport report = new RejectReport(String.valueOf(path.getFileName()));
+        forEach(path, sink, report);
+        report.logSummary();
+    }
+
+    // Streams the orders array entry by entry, so only one entry's tree is held in memory at a time.
+    // Orders already passed to the sink stay delivered if a later entry turns out to be malformed JSON.
+    public static void forEach(Path path, Consumer<Order> sink, RejectReport report)
+            throws IOException, WarningException, ErrorException {
         if (!Files.isReadable(path)) {
             throw new IOException("Cannot read orders file: " + path);
         }
 
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode root;
-        try {
-            root = mapper.readTree(path.toFile());
+        try (JsonParser parser = mapper.getFactory().createParser(path.toFile())) {
+            parse(parser, sink, report);
         } catch (JsonParseException | JsonMappingException e) {
             throw new ErrorException("Invalid JSON in orders file: " + path, e);
         } catch (IOException e) {
             throw new IOException("Cannot read orders file: " + path, e);
         }
+    }
 
-        if (!root.isArray()) {
-            throw new WarningException("Orders JSON root must be an array");
-        }
+    // Same as fromJson(Path) for an already open stream; source only names it in error messages. Closes the stream.
+    public static List<Order> fromJson(InputStream in, String source) throws IOException, WarningException, ErrorException {
+        RejectReport report = new RejectReport(source);
+        List<Order> orders = fromJson(in, source, report);
+        report.logSummary();
+        return orders;
+    }
 
+    public static List<Order> fromJson(InputStream in, String source, RejectReport report)
+            throws IOException, WarningException, ErrorException {
         List<Order> orders = new ArrayList<>();
-        for (JsonNode node : root) {
-            if (!node.hasNonNull("id") || !node.hasNonNull("value")) {
-                logger.warning("Skipping order entry with missing id or value: " + node);
-                continue;
+        try (JsonParser parser = mapper.getFactory().createParser(in)) {
+            parse(parser, orders::add, report);
+        } catch (JsonParseException | JsonMappingException e) {
+            throw new ErrorException("Invalid JSON in orders from " + source, e);
+        } catch (IOException e) {
+            throw new IOException("Cannot read orders from " + source, e);
+        }
+        return orders;
+    }
+
+    // Returns the number of array entries read, skipped ones included.
+    static long parse(JsonParser parser, Consumer<Order> sink, RejectReport report)
+            throws IOException, WarningException {
+        JsonToken first = parser.nextToken();
+        if (first != JsonToken.START_ARRAY) {
+            if (first != null) {
+                parser.skipChildren();
             }
+            throw new WarningException("Orders JSON root must be an array");
+        }
 
-            String id = node.get("id").asText();
-            BigDecimal value;
-            try {
-                value = new BigDecimal(node.get("value").asText());
-            } catch (NumberFormatException ex) {
-                logger.warning("Invalid value for order '" + id + "': " + node.get("value").asText());
-                continue;
+        long record = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            JsonNode node = mapper.readTree(parser);
+            Order order = fromNode(node, record++, report);
+            if (order != null) {
+                sink.accept(order);
             }
+        }
+        return record;
+    }
+
+    // Returns null for a skipped entry; nothing on this path throws for bad data.
+    static Order fromNode(JsonNode node, long record, RejectReport report) {
+        if (node == null || !node.hasNonNull("id") || !node.hasNonNull("value")) {
+            report.reject(RejectReason.MISSING_FIELD, record, "missing id or value");
+            return null;
+        }
+
+        String id = node.get("id").asText();
+        String text = node.get("value").asText();
+        if (!DecimalSyntax.isDecimal(text)) {
+            report.reject(RejectReason.INVALID_NUMBER, record, "order '" + id + "' value " + text);
+            return null;
+        }
+        BigDecimal value = new BigDecimal(text);
 
-            List<String> promotions = new ArrayList<>();
-            JsonNode promos = node.get("promotions");
-            if (promos != null && promos.isArray()) {
-                for (JsonNode p : promos) {
-                    if (p.isTextual()) {
-                        promotions.add(p.asText());
-                    } else {
-                        logger.warning("Ignoring non-text promotion for order '" + id + "': " + p);
-                    }
+        List<String> promotions = null;
+        JsonNode promos = node.get("promotions");
+        if (promos != null && promos.isArray()) {
+            for (JsonNode p : promos) {
+                if (p.isTextual()) {
+                    if (promotions == null) promotions = new ArrayList<>(promos.size());
+                    promotions.add(p.asText());
+                } else {
+                    report.reject(RejectReason.INVALID_PROMOTION, record, "order '" + id + "' non-text promotion");
                 }
-            } else if (promos != null) {
-                logger.warning("Field 'promotions' is not an array for order '" + id + "': " + promos);
             }
-
-            orders.add(new Order(id, value, promotions.isEmpty() ? null : promotions));
+        } else if (promos != null) {
+            report.reject(RejectReason.INVALID_PROMOTION, record, "order '" + id + "' promotions is not an array");
         }
 
-        return orders;
+        Order order = Order.tryCreate(id, value, promotions);
+        if (order == null) {
+            report.reject(id.isBlank() ? RejectReason.EMPTY_ID : RejectReason.NON_POSITIVE_VALUE, record,
+                    "order '" + id + "' value " + text);
+        }
+        return order;
     }
 }
@@ -0,0 +1,359 @@
+package pl.edu.agh.factory;
+
+import pl.edu.agh.algorithm.FixedPoint;
+import pl.edu.agh.exception.ErrorException;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.OrderStore;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+// Read-only, memory-mapped view of a binary orders snapshot. Accessors read straight from the mapping, so
+// loading costs one mmap and a header check regardless of the number of orders.
+//
+// Layout (little endian, sections in this order):
+//   header    magic, version, orderCount, dictionarySize, listCount, memberCount (ints), idBytes (long)
+//   values    long[orderCount]        order value in minor units (scale 2)
+//   idStart   int[orderCount + 1]     offsets into the id bytes
+//   listOf    int[orderCount]         promotion list per order, -1 for none
+//   listStart int[listCount + 1]      offsets into members; identical promotion lists are stored once
+//   members   int[memberCount]        indices into the dictionary
+//   dictStart int[dictionarySize + 1] offsets into the dictionary bytes
+//   dictBytes, idBytes                UTF-8
+public final class OrderSnapshot {
+    private static final int MAGIC = 0x4244524F; // "ORDB"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+
+    private final ByteBuffer data;
+    private final int orderCount;
+    private final int valuesAt;
+    private final int idStartAt;
+    private final int listOfAt;
+    private final int listStartAt;
+    private final int membersAt;
+    private final int idBytesAt;
+    private final String[] dictionary;
+    private final List<List<String>> lists;
+
+    private OrderSnapshot(ByteBuffer data) {
+        this.data = data;
+        this.orderCount = data.getInt(8);
+        int dictionarySize = data.getInt(12);
+        int listCount = data.getInt(16);
+        int memberCount = data.getInt(20);
+        this.valuesAt = HEADER_BYTES;
+        this.idStartAt = valuesAt + orderCount * 8;
+        this.listOfAt = idStartAt + (orderCount + 1) * 4;
+        this.listStartAt = listOfAt + orderCount * 4;
+        this.membersAt = listStartAt + (listCount + 1) * 4;
+        int dictStartAt = membersAt + memberCount * 4;
+        int dictBytesAt = dictStartAt + (dictionarySize + 1) * 4;
+        this.idBytesAt = dictBytesAt + data.getInt(dictStartAt + dictionarySize * 4);
+
+        this.dictionary = new String[dictionarySize];
+        for (int d = 0; d < dictionarySize; d++) {
+            dictionary[d] = utf8(dictBytesAt + data.getInt(dictStartAt + d * 4),
+                    dictBytesAt + data.getInt(dictStartAt + (d + 1) * 4)).intern();
+        }
+        this.lists = new ArrayList<>(listCount);
+        for (int l = 0; l < listCount; l++) {
+            int from = data.getInt(listStartAt + l * 4);
+            int to = data.getInt(listStartAt + (l + 1) * 4);
+            String[] members = new String[to - from];
+            for (int k = 0; k < members.length; k++) {
+                members[k] = dictionary[data.getInt(membersAt + (from + k) * 4)];
+            }
+            lists.add(List.of(members));
+        }
+    }
+
+    public static boolean isSnapshot(Path path) throws IOException {
+        if (!Files.isRegularFile(path) || Files.size(path) < HEADER_BYTES) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(head, 0);
+            return head.getInt(0) == MAGIC;
+        }
+    }
+
+    public static OrderSnapshot open(Path path) throws IOException, WarningException, ErrorException {
+        if (!Files.isReadable(path)) {
+            throw new IOException("Cannot read orders snapshot: " + path);
+        }
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new ErrorException("Orders snapshot larger than 2 GB: " + path);
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        ByteBuffer data = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC) {
+            throw new WarningException("Not an orders snapshot: " + path);
+        }
+        if (data.getInt(4) != VERSION) {
+            throw new WarningException("Unsupported orders snapshot version " + data.getInt(4) + ": " + path);
+        }
+        long expected = expectedSize(data);
+        if (expected != data.capacity()) {
+            throw new ErrorException("Truncated or corrupt orders snapshot: " + path);
+        }
+        if (!offsetsInBounds(data)) {
+            throw new ErrorException("Corrupt orders snapshot, offsets out of bounds: " + path);
+        }
+        return new OrderSnapshot(data);
+    }
+
+    public int size() { return orderCount; }
+
+    public long getValueMinor(int i) { return data.getLong(valuesAt + i * 8); }
+
+    public BigDecimal getValue(int i) { return FixedPoint.toDecimal(getValueMinor(i)); }
+
+    public String getId(int i) {
+        return utf8(idBytesAt + data.getInt(idStartAt + i * 4), idBytesAt + data.getInt(idStartAt + (i + 1) * 4));
+    }
+
+    // Promotion method ids of the order, or null like OrderFactory when it has none. Lists are shared.
+    public List<String> getPromotions(int i) {
+        int list = data.getInt(listOfAt + i * 4);
+        return list < 0 ? null : lists.get(list);
+    }
+
+    // Distinct promotion method ids in the snapshot; lets callers resolve each id once instead of per order.
+    public List<String> getDictionary() { return List.of(dictionary); }
+
+    public int getPromotionCount(int i) {
+        int list = data.getInt(listOfAt + i * 4);
+        return list < 0 ? 0 : data.getInt(listStartAt + (list + 1) * 4) - data.getInt(listStartAt + list * 4);
+    }
+
+    // Dictionary index of the k-th promotion of order i.
+    public int getPromotionIndex(int i, int k) {
+        int list = data.getInt(listOfAt + i * 4);
+        return data.getInt(membersAt + (data.getInt(listStartAt + list * 4) + k) * 4);
+    }
+
+    public List<Order> toOrders() throws WarningException {
+        List<Order> orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            orders.add(new Order(getId(i), getValue(i), getPromotions(i)));
+        }
+        return orders;
+    }
+
+    // Flyweight views that read through to the mapping, so nothing is decoded until an order is looked at.
+    // The views keep the mapping alive.
+    public List<Order> asList() {
+        return new Orders();
+    }
+
+    // Compact in-heap copy that outlives the mapping; promotion lists keep their shared dictionary.
+    public OrderStore toStore() throws WarningException {
+        OrderStore store = new OrderStore(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            store.add(getId(i), getValueMinor(i), getPromotions(i));
+        }
+        return store;
+    }
+
+    // Orders with values of more than two decimal places cannot be stored in minor units.
+    public static void write(List<Order> orders, Path path) throws IOException, WarningException {
+        int n = orders.size();
+        Map<String, Integer> dictionaryIndex = new HashMap<>();
+        List<byte[]> dictionary = new ArrayList<>();
+        Map<List<Integer>, Integer> listIndex = new HashMap<>();
+        List<int[]> lists = new ArrayList<>();
+        long[] values = new long[n];
+        int[] listOf = new int[n];
+        byte[][] ids = new byte[n][];
+        long idBytes = 0;
+        int memberCount = 0;
+        for (int i = 0; i < n; i++) {
+            Order order = orders.get(i);
+            if (!FixedPoint.isExact(order.getValue())) {
+                throw new WarningException("Order value has more than two decimal places for id=" + order.getId());
+            }
+            values[i] = FixedPoint.toMinor(order.getValue());
+            ids[i] = order.getId().getBytes(StandardCharsets.UTF_8);
+            idBytes += ids[i].length;
+            List<String> promos = order.getPromotions();
+            if (promos == null || promos.isEmpty()) {
+                listOf[i] = -1;
+                continue;
+            }
+            List<Integer> members = new ArrayList<>(promos.size());
+            for (String promo : promos) {
+                Integer d = dictionaryIndex.get(promo);
+                if (d == null) {
+                    d = dictionary.size();
+                    dictionaryIndex.put(promo, d);
+                    dictionary.add(promo.getBytes(StandardCharsets.UTF_8));
+                }
+                members.add(d);
+            }
+            Integer list = listIndex.get(members);
+            if (list == null) {
+                list = lists.size();
+                listIndex.put(members, list);
+                lists.add(members.stream().mapToInt(Integer::intValue).toArray());
+                memberCount += members.size();
+            }
+            listOf[i] = list;
+        }
+        long dictBytes = 0;
+        for (byte[] d : dictionary) dictBytes += d.length;
+
+        long size = HEADER_BYTES + (long) n * 8 + (n + 1L) * 4 + n * 4L + (lists.size() + 1L) * 4 + memberCount * 4L
+                + (dictionary.size() + 1L) * 4 + dictBytes + idBytes;
+        if (size > Integer.MAX_VALUE) {
+            throw new ErrorException("Orders snapshot would exceed 2 GB: " + path);
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            ByteBuffer out = mapped.order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(dictionary.size()).putInt(lists.size())
+                    .putInt(memberCount).putLong(idBytes);
+            for (long value : values) out.putLong(value);
+            int offset = 0;
+            for (byte[] id : ids) {
+                out.putInt(offset);
+                offset += id.length;
+            }
+            out.putInt(offset);
+            for (int list : listOf) out.putInt(list);
+            offset = 0;
+            for (int[] list : lists) {
+                out.putInt(offset);
+                offset += list.length;
+            }
+            out.putInt(offset);
+            for (int[] list : lists) {
+                for (int member : list) out.putInt(member);
+            }
+            offset = 0;
+            for (byte[] d : dictionary) {
+                out.putInt(offset);
+                offset += d.length;
+            }
+            out.putInt(offset);
+            for (byte[] d : dictionary) out.put(d);
+            for (byte[] id : ids) out.put(id);
+            mapped.force();
+        }
+    }
+
+    private static long expectedSize(ByteBuffer data) {
+        long n = data.getInt(8);
+        long dictionarySize = data.getInt(12);
+        long listCount = data.getInt(16);
+        long memberCount = data.getInt(20);
+        long idBytes = data.getLong(24);
+        if (n < 0 || dictionarySize < 0 || listCount < 0 || memberCount < 0 || idBytes < 0) {
+            return -1;
+        }
+        long dictStartAt = HEADER_BYTES + n * 8 + (n + 1) * 4 + n * 4 + (listCount + 1) * 4 + memberCount * 4;
+        long dictEnd = dictStartAt + dictionarySize * 4;
+        if (dictEnd + 4 > data.capacity()) {
+            return -1;
+        }
+        return dictEnd + 4 + data.getInt((int) dictEnd) + idBytes;
+    }
+
+    // The section sizes already match the file; checks that every stored offset, index and value the accessors
+    // follow stays inside its section, so a corrupt file fails here rather than on first access.
+    private static boolean offsetsInBounds(ByteBuffer data) {
+        int n = data.getInt(8);
+        int dictionarySize = data.getInt(12);
+        int listCount = data.getInt(16);
+        int memberCount = data.getInt(20);
+        long idBytes = data.getLong(24);
+        int idStartAt = HEADER_BYTES + n * 8;
+        int listOfAt = idStartAt + (n + 1) * 4;
+        int listStartAt = listOfAt + n * 4;
+        int membersAt = listStartAt + (listCount + 1) * 4;
+        int dictStartAt = membersAt + memberCount * 4;
+        int dictBytes = data.getInt(dictStartAt + dictionarySize * 4);
+        if (!ascending(data, idStartAt, n, idBytes) || !ascending(data, listStartAt, listCount, memberCount)
+                || !ascending(data, dictStartAt, dictionarySize, dictBytes)) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            int list = data.getInt(listOfAt + i * 4);
+            if (data.getLong(HEADER_BYTES + i * 8) <= 0 || list < -1 || list >= listCount) return false;
+        }
+        for (int k = 0; k < memberCount; k++) {
+            int member = data.getInt(membersAt + k * 4);
+            if (member < 0 || member >= dictionarySize) return false;
+        }
+        return true;
+    }
+
+    // count + 1 non-decreasing offsets from 0 to end.
+    private static boolean ascending(ByteBuffer data, int at, int count, long end) {
+        int previous = 0;
+        for (int i = 0; i <= count; i++) {
+            int offset = data.getInt(at + i * 4);
+            if (offset < previous || (i == 0 && offset != 0)) return false;
+            previous = offset;
+        }
+        return previous == end;
+    }
+
+    private String utf8(int from, int to) {
+        byte[] bytes = new byte[to - from];
+        data.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private final class Orders extends AbstractList<Order> implements RandomAccess {
+        @Override
+        public Order get(int index) {
+            if (index < 0 || index >= orderCount) {
+                throw new IndexOutOfBoundsException("Order index " + index + " out of range for size " + orderCount);
+            }
+            return new View(index);
+        }
+
+        @Override
+        public int size() { return orderCount; }
+    }
+
+    private final class View extends Order {
+        private final int index;
+
+        View(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getId() { return OrderSnapshot.this.getId(index); }
+
+        @Override
+        public BigDecimal getValue() { return OrderSnapshot.this.getValue(index); }
+
+        @Override
+        public List<String> getPromotions() { return OrderSnapshot.this.getPromotions(index); }
+    }
+}
@@ -0,0 +1,236 @@
+package pl.edu.agh.factory;
+
+import pl.edu.agh.exception.ErrorException;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.model.Order;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonMappingException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// Parses a large orders file on several threads. One sequential pass over the memory-mapped file tracks nesting
+// and string/escape state to find commas between top-level array entries; the ranges between them are parsed
+// concurrently as arrays of their own, and the per-range orders and reject reports are joined in file order.
+// The result, the reject report and its logged samples are the same as from OrderFactory.fromJson.
+// Files that are small or do not look like a plain array go through OrderFactory.fromJson directly.
+public final class ParallelOrderLoader {
+    private static final long MIN_CHUNK_BYTES = 1L << 20;
+    private static final long MAX_CHUNK_BYTES = 256L << 20;
+    private static final long SCAN_WINDOW_BYTES = 1L << 30;
+    private static final int CHUNKS_PER_CORE = 4;
+
+    private ParallelOrderLoader() {
+    }
+
+    public static List<Order> fromJson(Path path, ExecutorService executor)
+            throws IOException, WarningException, ErrorException {
+        RejectReport report = new RejectReport(String.valueOf(path.getFileName()));
+        List<Order> orders = fromJson(path, executor, report);
+        report.logSummary();
+        return orders;
+    }
+
+    public static List<Order> fromJson(Path path, ExecutorService executor, RejectReport report)
+            throws IOException, WarningException, ErrorException {
+        if (!Files.isReadable(path)) {
+            throw new IOException("Cannot read orders file: " + path);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (executor == null || size < 2 * MIN_CHUNK_BYTES) {
+                return OrderFactory.fromJson(path, report);
+            }
+            int cores = Runtime.getRuntime().availableProcessors();
+            long chunkBytes = Math.min(MAX_CHUNK_BYTES, Math.max(MIN_CHUNK_BYTES, size / (cores * CHUNKS_PER_CORE)));
+            long[] bounds = boundaries(channel, size, chunkBytes);
+            if (bounds == null) {
+                return OrderFactory.fromJson(path, report);
+            }
+
+            List<Future<Chunk>> futures = new ArrayList<>(bounds.length - 1);
+            for (int c = 0; c + 1 < bounds.length; c++) {
+                long from = bounds[c] + 1;
+                long to = bounds[c + 1];
+                futures.add(executor.submit(() -> parse(channel, from, to, report)));
+            }
+            return join(path, futures, report);
+        }
+    }
+
+    // Offsets of the opening '[', of every comma chosen as a split point, and of the closing ']'; null when the
+    // file does not hold a complete top-level array. Splits are only taken right after a complete entry, so
+    // malformed separators (",," or "[,") stay inside one chunk and fail there as they would sequentially.
+    private static long[] boundaries(FileChannel channel, long size, long chunkBytes) throws IOException {
+        List<Long> bounds = new ArrayList<>();
+        int depth = 0;
+        boolean inString = false;
+        boolean escape = false;
+        byte last = 0;
+        long target = 0;
+        for (long base = 0; base < size; base += SCAN_WINDOW_BYTES) {
+            ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, base, Math.min(SCAN_WINDOW_BYTES, size - base));
+            int limit = window.limit();
+            for (int i = 0; i < limit; i++) {
+                byte b = window.get(i);
+                if (inString) {
+                    if (escape) {
+                        escape = false;
+                    } else if (b == '\\') {
+                        escape = true;
+                    } else if (b == '"') {
+                        inString = false;
+                    }
+                    continue;
+                }
+                if (b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                    continue;
+                }
+                long pos = base + i;
+                if (depth == 0) {
+                    // only whitespace and a UTF-8 byte order mark may precede the array
+                    if (pos < 3 && bomAt(window, base)) continue;
+                    if (b != '[') return null;
+                    depth = 1;
+                    bounds.add(pos);
+                    target = pos + chunkBytes;
+                    last = b;
+                    continue;
+                }
+                switch (b) {
+                    case '"' -> inString = true;
+                    case '{', '[' -> depth++;
+                    case '}', ']' -> {
+                        if (--depth == 0) {
+                            bounds.add(pos);
+                            return toArray(bounds);
+                        }
+                    }
+                    case ',' -> {
+                        if (depth == 1 && pos >= target && last != ',' && last != '[') {
+                            bounds.add(pos);
+                            target = pos + chunkBytes;
+                        }
+                    }
+                    default -> {
+                    }
+                }
+                last = b;
+            }
+        }
+        return null;
+    }
+
+    private static boolean bomAt(ByteBuffer window, long base) {
+        return base == 0 && window.limit() >= 3
+                && window.get(0) == (byte) 0xEF && window.get(1) == (byte) 0xBB && window.get(2) == (byte) 0xBF;
+    }
+
+    private static long[] toArray(List<Long> bounds) {
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) result[i] = bounds.get(i);
+        return result;
+    }
+
+    // Parses the entries between two boundaries. Failures are kept with the chunk rather than thrown, so they
+    // surface in file order after the rejects of everything before them.
+    private static Chunk parse(FileChannel channel, long from, long to, RejectReport report) {
+        Chunk chunk = new Chunk(new RejectReport(report.getSource(), report.getSamplesPerReason(), false));
+        try {
+            ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+            InputStream in = new SequenceInputStream(Collections.enumeration(List.of(
+                    new ByteArrayInputStream(new byte[]{'['}), new BufferInputStream(bytes),
+                    new ByteArrayInputStream(new byte[]{']'}))));
+            try (JsonParser parser = OrderFactory.mapper.getFactory().createParser(in)) {
+                chunk.records = OrderFactory.parse(parser, chunk.orders::add, chunk.report);
+            }
+        } catch (IOException | WarningException e) {
+            chunk.failure = e;
+        }
+        return chunk;
+    }
+
+    private static List<Order> join(Path path, List<Future<Chunk>> futures, RejectReport report)
+            throws IOException {
+        List<Chunk> chunks = new ArrayList<>(futures.size());
+        try {
+            for (Future<Chunk> future : futures) {
+                chunks.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new ErrorException("Interrupted while parsing orders file: " + path, e);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new ErrorException("Parallel parsing failed for orders file: " + path, e.getCause());
+        }
+
+        int total = 0;
+        for (Chunk chunk : chunks) total += chunk.orders.size();
+        List<Order> orders = new ArrayList<>(total);
+        long offset = 0;
+        for (Chunk chunk : chunks) {
+            report.append(chunk.report, offset);
+            if (chunk.failure instanceof JsonParseException || chunk.failure instanceof JsonMappingException) {
+                throw new ErrorException("Invalid JSON in orders file: " + path, chunk.failure);
+            } else if (chunk.failure != null) {
+                throw new IOException("Cannot read orders file: " + path, chunk.failure);
+            }
+            orders.addAll(chunk.orders);
+            offset += chunk.records;
+        }
+        return orders;
+    }
+
+    private static final class Chunk {
+        final List<Order> orders = new ArrayList<>();
+        final RejectReport report;
+        long records;
+        Exception failure;
+
+        Chunk(RejectReport report) {
+            this.report = report;
+        }
+    }
+
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer bytes;
+
+        BufferInputStream(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read() {
+            return bytes.hasRemaining() ? bytes.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) return 0;
+            if (!bytes.hasRemaining()) return -1;
+            int n = Math.min(len, bytes.remaining());
+            bytes.get(b, off, n);
+            return n;
+        }
+    }
+}
@@ -15,13 +15,19 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.logging.Logger;
 
 public class PaymentMethodFactory {
-    private static final Logger logger = Logger.getLogger(PaymentMethodFactory.class.getName());
-
     public static List<PaymentMethod> fromJson(Path path)
             throws IOException, WarningException, ErrorException {
+        RejectReport report = new RejectReport(String.valueOf(path.getFileName()));
+        List<PaymentMethod> methods = fromJson(path, report);
+        report.logSummary();
+        return methods;
+    }
+
+    // Skipped entries are counted in the report instead of logged one by one.
+    public static List<PaymentMethod> fromJson(Path path, RejectReport report)
+            throws IOException, WarningException, ErrorException {
         if (!Files.isReadable(path)) {
             throw new IOException("Cannot read payment methods file: " + path);
         }
@@ -47,26 +53,12 @@ public class PaymentMethodFactory {
         }
 
         List<PaymentMethod> methods = new ArrayList<>();
+        long record = 0;
         for (JsonNode node : root) {
-            if (!node.hasNonNull("id")
-                    || !node.hasNonNull("discount")
-                    || !node.hasNonNull("limit")) {
-                logger.warning("Skipping payment method with missing id/discount/limit: " + node);
-                continue;
-            }
-
-            String id = node.get("id").asText();
-            BigDecimal discount;
-            BigDecimal limit;
-            try {
-                discount = new BigDecimal(node.get("discount").asText());
-                limit    = new BigDecimal(node.get("limit").asText());
-            } catch (NumberFormatException ex) {
-                logger.warning("Invalid numeric field for payment method '" + id + "': " + node);
-                continue;
+            PaymentMethod method = fromNode(node, record++, report);
+            if (method != null) {
+                methods.add(method);
             }
-
-            methods.add(new PaymentMethod(id, discount, limit));
         }
 
         if (methods.isEmpty()) {
@@ -75,4 +67,30 @@ public class PaymentMethodFactory {
 
         return methods;
     }
+
+    private static PaymentMethod fromNode(JsonNode node, long record, RejectReport report) {
+        if (!node.hasNonNull("id") || !node.hasNonNull("discount") || !node.hasNonNull("limit")) {
+            report.reject(RejectReason.MISSING_FIELD, record, "missing id/discount/limit");
+            return null;
+        }
+
+        String id = node.get("id").asText();
+        String discountText = node.get("discount").asText();
+        String limitText = node.get("limit").asText();
+        if (!DecimalSyntax.isDecimal(discountText) || !DecimalSyntax.isDecimal(limitText)) {
+            report.reject(RejectReason.INVALID_NUMBER, record,
+                    "method '" + id + "' discount " + discountText + ", limit " + limitText);
+            return null;
+        }
+        BigDecimal discount = new BigDecimal(discountText);
+        BigDecimal limit = new BigDecimal(limitText);
+
+        PaymentMethod method = PaymentMethod.tryCreate(id, discount, limit);
+        if (method == null) {
+            RejectReason reason = id.isBlank() ? RejectReason.EMPTY_ID
+                    : discount.signum() < 0 ? RejectReason.NEGATIVE_DISCOUNT : RejectReason.NEGATIVE_LIMIT;
+            report.reject(reason, record, "method '" + id + "' discount " + discountText + ", limit " + limitText);
+        }
+        return method;
+    }
 }
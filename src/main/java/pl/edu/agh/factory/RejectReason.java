@@ -0,0 +1,12 @@
+package pl.edu.agh.factory;
+
+public enum RejectReason {
+    MISSING_FIELD,
+    INVALID_NUMBER,
+    EMPTY_ID,
+    NON_POSITIVE_VALUE,
+    NEGATIVE_DISCOUNT,
+    NEGATIVE_LIMIT,
+    // promotion entry dropped; the order itself is kept
+    INVALID_PROMOTION
+}
@@ -0,0 +1,117 @@
+package pl.edu.agh.factory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+// Records skipped during loading, counted per reason. Only the first few records of each reason are kept as
+// samples and logged, so a feed with many bad rows costs a counter increment per row instead of a log line.
+public final class RejectReport {
+    private static final Logger logger = Logger.getLogger(RejectReport.class.getName());
+
+    public static final int DEFAULT_SAMPLES_PER_REASON = 5;
+    private static final int MAX_DETAIL_LENGTH = 120;
+
+    private final String source;
+    private final int samplesPerReason;
+    private final boolean logSamples;
+    private final long[] counts = new long[RejectReason.values().length];
+    private final List<Sample> samples = new ArrayList<>();
+
+    public RejectReport(String source) {
+        this(source, DEFAULT_SAMPLES_PER_REASON, true);
+    }
+
+    public RejectReport(String source, int samplesPerReason, boolean logSamples) {
+        this.source = source;
+        this.samplesPerReason = Math.max(samplesPerReason, 0);
+        this.logSamples = logSamples;
+    }
+
+    // record is the zero-based position of the entry in the input.
+    public void reject(RejectReason reason, long record, String detail) {
+        long seen = counts[reason.ordinal()]++;
+        if (seen >= samplesPerReason) {
+            return;
+        }
+        String trimmed = detail == null || detail.length() <= MAX_DETAIL_LENGTH
+                ? detail : detail.substring(0, MAX_DETAIL_LENGTH) + "...";
+        keep(new Sample(reason, record, trimmed));
+    }
+
+    // Folds in the report of a later part of the same input, read with the same sample limit, as if its records
+    // had been seen here; offset is the number of records before that part. Samples and logged lines come out
+    // exactly as from one sequential pass.
+    void append(RejectReport part, long offset) {
+        long[] seen = new long[counts.length];
+        for (Sample sample : part.samples) {
+            int r = sample.reason.ordinal();
+            if (counts[r] + seen[r]++ < samplesPerReason) {
+                keep(new Sample(sample.reason, sample.record + offset, sample.detail));
+            }
+        }
+        for (int r = 0; r < counts.length; r++) {
+            counts[r] += part.counts[r];
+        }
+    }
+
+    private void keep(Sample sample) {
+        samples.add(sample);
+        if (logSamples) {
+            logger.warning(source + ": " + sample.reason + " at entry " + sample.record + ": " + sample.detail);
+        }
+    }
+
+    int getSamplesPerReason() { return samplesPerReason; }
+
+    public String getSource() { return source; }
+
+    public long getCount(RejectReason reason) { return counts[reason.ordinal()]; }
+
+    public long getTotal() {
+        long total = 0;
+        for (long count : counts) total += count;
+        return total;
+    }
+
+    public List<Sample> getSamples() { return Collections.unmodifiableList(samples); }
+
+    // e.g. "orders.json: 12 rejected (INVALID_NUMBER=10, MISSING_FIELD=2)"
+    public String summary() {
+        StringBuilder sb = new StringBuilder(source).append(": ").append(getTotal()).append(" rejected");
+        String separator = " (";
+        for (RejectReason reason : RejectReason.values()) {
+            if (counts[reason.ordinal()] == 0) continue;
+            sb.append(separator).append(reason).append('=').append(counts[reason.ordinal()]);
+            separator = ", ";
+        }
+        return separator.equals(", ") ? sb.append(')').toString() : sb.toString();
+    }
+
+    // One line for everything past the logged samples; silent when nothing was suppressed.
+    public void logSummary() {
+        for (long count : counts) {
+            if (count > samplesPerReason || (!logSamples && count > 0)) {
+                logger.warning(summary());
+                return;
+            }
+        }
+    }
+
+    public static final class Sample {
+        private final RejectReason reason;
+        private final long record;
+        private final String detail;
+
+        Sample(RejectReason reason, long record, String detail) {
+            this.reason = reason;
+            this.record = record;
+            this.detail = detail;
+        }
+
+        public RejectReason getReason() { return reason; }
+        public long getRecord() { return record; }
+        public String getDetail() { return detail; }
+    }
+}
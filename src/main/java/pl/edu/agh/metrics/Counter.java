@@ -0,0 +1,16 @@
+package pl.edu.agh.metrics;
+
+public enum Counter {
+    OPTIONS_GENERATED,
+    // option skipped because its method no longer had enough limit left
+    OPTIONS_REJECTED,
+    // orders with an amount still due after assignment, paid by the distribution phases
+    ORDERS_DISTRIBUTED,
+    // orders whose options came from / were added to an OptionCache
+    CACHE_HITS,
+    CACHE_MISSES,
+    // discount in minor units over the plain density greedy, found by the local search, scarcity and anytime engines
+    DISCOUNT_GAINED,
+    // LocalSearch restarts run by the anytime workers before their budget ran out or their restarts went stale
+    RESTARTS
+}
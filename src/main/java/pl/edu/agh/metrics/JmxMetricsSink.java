@@ -0,0 +1,83 @@
+package pl.edu.agh.metrics;
+
+import pl.edu.agh.exception.ErrorException;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Aggregates runs and exposes them as an MXBean under pl.edu.agh:type=OptimizerMetrics (e.g. in JConsole).
+public final class JmxMetricsSink implements MetricsSink, OptimizerMetricsMXBean {
+    public static final String OBJECT_NAME = "pl.edu.agh:type=OptimizerMetrics";
+
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private final long[] counters = new long[Counter.values().length];
+    private long runs;
+    private Map<String, Double> lastUtilisation = Map.of();
+    private ObjectName registeredAs;
+
+    public synchronized void register() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            registeredAs = name;
+        } catch (InstanceAlreadyExistsException e) {
+            throw new ErrorException("Optimizer metrics MBean already registered", e);
+        } catch (JMException e) {
+            throw new ErrorException("Cannot register optimizer metrics MBean", e);
+        }
+    }
+
+    public synchronized void unregister() {
+        if (registeredAs == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredAs);
+        } catch (JMException e) {
+            throw new ErrorException("Cannot unregister optimizer metrics MBean", e);
+        }
+        registeredAs = null;
+    }
+
+    @Override
+    public synchronized void record(RunMetrics metrics) {
+        runs++;
+        for (Phase phase : Phase.values()) {
+            phaseNanos[phase.ordinal()] += metrics.getPhaseNanos(phase);
+        }
+        for (Counter counter : Counter.values()) {
+            counters[counter.ordinal()] += metrics.getCounter(counter);
+        }
+        Map<String, Double> utilisation = new LinkedHashMap<>();
+        for (RunMetrics.MethodUsage method : metrics.getMethods()) {
+            utilisation.putIfAbsent(method.getId(), method.getUtilisation());
+        }
+        lastUtilisation = utilisation;
+    }
+
+    @Override
+    public synchronized long getRuns() { return runs; }
+
+    @Override
+    public synchronized Map<String, Double> getPhaseMillis() {
+        Map<String, Double> millis = new LinkedHashMap<>();
+        for (Phase phase : Phase.values()) {
+            millis.put(phase.name(), phaseNanos[phase.ordinal()] / 1e6);
+        }
+        return millis;
+    }
+
+    @Override
+    public synchronized Map<String, Long> getCounters() {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        for (Counter counter : Counter.values()) {
+            totals.put(counter.name(), counters[counter.ordinal()]);
+        }
+        return totals;
+    }
+
+    @Override
+    public synchronized Map<String, Double> getLastUtilisation() { return lastUtilisation; }
+}
@@ -0,0 +1,64 @@
+package pl.edu.agh.metrics;
+
+import pl.edu.agh.exception.ErrorException;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Appends every run as one JSON object per line:
+//   {"phasesMs": {"GENERATE": 1.2, ...}, "counters": {"OPTIONS_GENERATED": 11, ...},
+//    "methods": [{"id": "mZysk", "used": 180.00, "limit": 180.00, "utilisation": 1.0}, ...]}
+public final class JsonMetricsSink implements MetricsSink {
+    private static final JsonFactory factory = new JsonFactory();
+
+    private final Path path;
+
+    public JsonMetricsSink(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public synchronized void record(RunMetrics metrics) {
+        try (OutputStream out = Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            write(metrics, out);
+            out.write('\n');
+        } catch (IOException e) {
+            throw new ErrorException("Cannot write metrics to " + path, e);
+        }
+    }
+
+    public static void write(RunMetrics metrics, OutputStream out) throws IOException {
+        try (JsonGenerator json = factory.createGenerator(out, JsonEncoding.UTF8)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+            json.writeObjectFieldStart("phasesMs");
+            for (Phase phase : Phase.values()) {
+                json.writeNumberField(phase.name(), metrics.getPhaseNanos(phase) / 1e6);
+            }
+            json.writeEndObject();
+            json.writeObjectFieldStart("counters");
+            for (Counter counter : Counter.values()) {
+                json.writeNumberField(counter.name(), metrics.getCounter(counter));
+            }
+            json.writeEndObject();
+            json.writeArrayFieldStart("methods");
+            for (RunMetrics.MethodUsage method : metrics.getMethods()) {
+                json.writeStartObject();
+                json.writeStringField("id", method.getId());
+                json.writeNumberField("used", method.getUsed());
+                json.writeNumberField("limit", method.getLimit());
+                json.writeNumberField("utilisation", method.getUtilisation());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package pl.edu.agh.metrics;
+
+import pl.edu.agh.algorithm.FixedPoint;
+import pl.edu.agh.algorithm.MethodRegistry;
+import pl.edu.agh.model.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// Collects timings and counters of one run. Not thread-safe; create one per run.
+// DISABLED ignores everything and skips the clock, so instrumented code costs a branch per phase when unused.
+public final class MetricsRecorder {
+    public static final MetricsRecorder DISABLED = new MetricsRecorder(false);
+
+    private final boolean enabled;
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private final long[] counters = new long[Counter.values().length];
+
+    public MetricsRecorder() {
+        this(true);
+    }
+
+    private MetricsRecorder(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    // Start mark for stop(); 0 when disabled.
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void stop(Phase phase, long start) {
+        if (enabled) {
+            phaseNanos[phase.ordinal()] += System.nanoTime() - start;
+        }
+    }
+
+    public void add(Counter counter, long delta) {
+        if (enabled) {
+            counters[counter.ordinal()] += delta;
+        }
+    }
+
+    // Snapshot for the minor-unit engines; used is indexed like the registry.
+    public RunMetrics finish(MethodRegistry registry, long[] used) {
+        List<RunMetrics.MethodUsage> methods = new ArrayList<>(registry.size());
+        for (int i = 0; i < registry.size(); i++) {
+            methods.add(new RunMetrics.MethodUsage(registry.getId(i), FixedPoint.toDecimal(used[i]),
+                    FixedPoint.toDecimal(registry.getLimit(i))));
+        }
+        return new RunMetrics(phaseNanos.clone(), counters.clone(), methods);
+    }
+
+    // Snapshot for optimizers that spend PaymentMethod limits directly.
+    public RunMetrics finish(List<PaymentMethod> paymentMethods) {
+        List<RunMetrics.MethodUsage> methods = new ArrayList<>(paymentMethods.size());
+        for (PaymentMethod m : paymentMethods) {
+            BigDecimal used = m.getLimit().subtract(m.getRemaining());
+            methods.add(new RunMetrics.MethodUsage(m.getId(), used, m.getLimit()));
+        }
+        return new RunMetrics(phaseNanos.clone(), counters.clone(), methods);
+    }
+}
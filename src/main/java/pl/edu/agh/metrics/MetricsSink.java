@@ -0,0 +1,6 @@
+package pl.edu.agh.metrics;
+
+// Receives the metrics of every finished run; implementations must be thread-safe when runs are concurrent.
+public interface MetricsSink {
+    void record(RunMetrics metrics);
+}
@@ -0,0 +1,15 @@
+package pl.edu.agh.metrics;
+
+import java.util.Map;
+
+public interface OptimizerMetricsMXBean {
+    long getRuns();
+
+    // Totals over all runs since registration.
+    Map<String, Double> getPhaseMillis();
+
+    Map<String, Long> getCounters();
+
+    // Utilisation per method in the most recent run.
+    Map<String, Double> getLastUtilisation();
+}
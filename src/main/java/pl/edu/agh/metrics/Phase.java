@@ -0,0 +1,3 @@
+package pl.edu.agh.metrics;
+
+public enum Phase { PARSE, GENERATE, SORT, ASSIGN, POINTS_DISTRIBUTION, CARD_DISTRIBUTION }
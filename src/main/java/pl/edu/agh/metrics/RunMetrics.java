@@ -0,0 +1,44 @@
+package pl.edu.agh.metrics;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Immutable result of one instrumented run.
+public final class RunMetrics {
+    private final long[] phaseNanos;
+    private final long[] counters;
+    private final List<MethodUsage> methods;
+
+    RunMetrics(long[] phaseNanos, long[] counters, List<MethodUsage> methods) {
+        this.phaseNanos = phaseNanos;
+        this.counters = counters;
+        this.methods = List.copyOf(methods);
+    }
+
+    public long getPhaseNanos(Phase phase) { return phaseNanos[phase.ordinal()]; }
+
+    public long getCounter(Counter counter) { return counters[counter.ordinal()]; }
+
+    public List<MethodUsage> getMethods() { return methods; }
+
+    public static final class MethodUsage {
+        private final String id;
+        private final BigDecimal used;
+        private final BigDecimal limit;
+
+        MethodUsage(String id, BigDecimal used, BigDecimal limit) {
+            this.id = id;
+            this.used = used;
+            this.limit = limit;
+        }
+
+        public String getId() { return id; }
+        public BigDecimal getUsed() { return used; }
+        public BigDecimal getLimit() { return limit; }
+
+        // Share of the limit used, 0 for a zero limit.
+        public double getUtilisation() {
+            return limit.signum() == 0 ? 0 : used.doubleValue() / limit.doubleValue();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package pl.edu.agh.model;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+// Amount one order pays with one payment method, in minor units (scale 2).
+public final class Allocation {
+    private final String orderId;
+    private final String methodId;
+    private final long amountMinor;
+
+    public Allocation(String orderId, String methodId, long amountMinor) {
+        this.orderId = orderId;
+        this.methodId = methodId;
+        this.amountMinor = amountMinor;
+    }
+
+    public String getOrderId() { return orderId; }
+    public String getMethodId() { return methodId; }
+    public long getAmountMinor() { return amountMinor; }
+    public BigDecimal getAmount() { return BigDecimal.valueOf(amountMinor, 2); }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Allocation other)) return false;
+        return amountMinor == other.amountMinor && orderId.equals(other.orderId) && methodId.equals(other.methodId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderId, methodId, amountMinor);
+    }
+
+    @Override
+    public String toString() {
+        return orderId + " " + methodId + " " + getAmount();
+    }
+}
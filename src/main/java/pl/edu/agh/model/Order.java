@@ -13,7 +13,7 @@ public class Order {
         if (id == null || id.isBlank()) {
             throw new WarningException("Order id must not be empty");
         }
-        if (value == null || value.compareTo(BigDecimal.ZERO) <= 0) {
+        if (!isValidValue(value)) {
             throw new WarningException("Order value must be positive for id=" + id);
         }
         this.id = id;
@@ -21,6 +21,29 @@ public class Order {
         this.promotions = promotions;
     }
 
+    // Same checks as the constructor without the exception, for bulk loading; null when id or value is invalid.
+    public static Order tryCreate(String id, BigDecimal value, List<String> promotions) {
+        if (id == null || id.isBlank() || !isValidValue(value)) {
+            return null;
+        }
+        try {
+            return new Order(id, value, promotions);
+        } catch (WarningException e) {
+            throw new IllegalStateException("Order passed the checks above but was rejected", e);
+        }
+    }
+
+    public static boolean isValidValue(BigDecimal value) {
+        return value != null && value.signum() > 0;
+    }
+
+    // For flyweight views (OrderStore, OrderSnapshot), which override every getter.
+    protected Order() {
+        this.id = null;
+        this.value = null;
+        this.promotions = null;
+    }
+
     public String getId() { return id; }
     public BigDecimal getValue() { return value; }
     public List<String> getPromotions() { return promotions; }
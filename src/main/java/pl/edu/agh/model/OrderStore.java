@@ -0,0 +1,174 @@
+package pl.edu.agh.model;
+
+import pl.edu.agh.exception.ErrorException;
+import pl.edu.agh.exception.WarningException;
+
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+// Column store for large order books: values as minor units in a long[], promotion ids as short codes into a
+// shared dictionary. asList() exposes flyweight Order views, so code written against List<Order> keeps working
+// without one Order, BigDecimal and promotion list per order staying on the heap.
+public final class OrderStore {
+    private static final int SCALE = 2;
+    private static final BigDecimal MAX_VALUE = BigDecimal.valueOf(Long.MAX_VALUE, SCALE);
+
+    private final List<String> codes = new ArrayList<>();
+    private final Map<String, Short> codeById = new HashMap<>();
+    private String[] ids;
+    private long[] values;
+    private int[] promotionStart;
+    private short[] promotionCodes;
+    private int size;
+    private int promotionCount;
+
+    public OrderStore() {
+        this(16);
+    }
+
+    public OrderStore(int capacity) {
+        int cap = Math.max(capacity, 16);
+        ids = new String[cap];
+        values = new long[cap];
+        promotionStart = new int[cap + 1];
+        promotionCodes = new short[cap];
+    }
+
+    public static OrderStore of(List<Order> orders) throws WarningException {
+        OrderStore store = new OrderStore(orders.size());
+        for (Order order : orders) {
+            store.add(order);
+        }
+        return store;
+    }
+
+    public void add(Order order) throws WarningException {
+        BigDecimal value = order.getValue();
+        if (value.stripTrailingZeros().scale() > SCALE || value.compareTo(MAX_VALUE) > 0) {
+            throw new WarningException("Order value cannot be stored in minor units for id=" + order.getId());
+        }
+        add(order.getId(), value.movePointRight(SCALE).longValueExact(), order.getPromotions());
+    }
+
+    // Same validation as the Order constructor; valueMinor is the value in hundredths.
+    public void add(String id, long valueMinor, List<String> promotions) throws WarningException {
+        if (id == null || id.isBlank()) {
+            throw new WarningException("Order id must not be empty");
+        }
+        if (valueMinor <= 0) {
+            throw new WarningException("Order value must be positive for id=" + id);
+        }
+        int promoCount = promotions == null ? 0 : promotions.size();
+        if (size == ids.length) {
+            int cap = ids.length * 2;
+            ids = Arrays.copyOf(ids, cap);
+            values = Arrays.copyOf(values, cap);
+            promotionStart = Arrays.copyOf(promotionStart, cap + 1);
+        }
+        if (promotionCount + promoCount > promotionCodes.length) {
+            promotionCodes = Arrays.copyOf(promotionCodes, Math.max(promotionCodes.length * 2, promotionCount + promoCount));
+        }
+        for (int k = 0; k < promoCount; k++) {
+            promotionCodes[promotionCount++] = codeOf(promotions.get(k));
+        }
+        ids[size] = id;
+        values[size] = valueMinor;
+        size++;
+        promotionStart[size] = promotionCount;
+    }
+
+    public int size() { return size; }
+
+    public String getId(int i) { return ids[i]; }
+
+    public long getValueMinor(int i) { return values[i]; }
+
+    public int getPromotionCount(int i) { return promotionStart[i + 1] - promotionStart[i]; }
+
+    public int getPromotionCode(int i, int k) { return promotionCodes[promotionStart[i] + k]; }
+
+    // Promotion id for a code; codes are dense and assigned in order of first appearance.
+    public String getCodeId(int code) { return codes.get(code); }
+
+    public int getCodeCount() { return codes.size(); }
+
+    // Flyweight view: the Order reads through to the columns and builds its value and promotions on demand.
+    public Order get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Order index " + i + " out of range for size " + size);
+        }
+        return new View(i);
+    }
+
+    public List<Order> asList() {
+        return new Orders();
+    }
+
+    private short codeOf(String promotion) {
+        Short code = codeById.get(promotion);
+        if (code == null) {
+            if (codes.size() > Short.MAX_VALUE) {
+                throw new ErrorException("Too many distinct promotion ids for an order store");
+            }
+            code = (short) codes.size();
+            codes.add(promotion.intern());
+            codeById.put(codes.get(code), code);
+        }
+        return code;
+    }
+
+    private final class Orders extends AbstractList<Order> implements RandomAccess {
+        @Override
+        public Order get(int index) { return OrderStore.this.get(index); }
+
+        @Override
+        public int size() { return size; }
+    }
+
+    private final class View extends Order {
+        private final int index;
+
+        View(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getId() { return ids[index]; }
+
+        @Override
+        public BigDecimal getValue() { return BigDecimal.valueOf(values[index], SCALE); }
+
+        @Override
+        public List<String> getPromotions() {
+            int count = getPromotionCount(index);
+            return count == 0 ? null : new Promotions(promotionStart[index], count);
+        }
+    }
+
+    private final class Promotions extends AbstractList<String> implements RandomAccess {
+        private final int from;
+        private final int count;
+
+        Promotions(int from, int count) {
+            this.from = from;
+            this.count = count;
+        }
+
+        @Override
+        public String get(int k) {
+            if (k < 0 || k >= count) {
+                throw new IndexOutOfBoundsException("Promotion index " + k + " out of range for size " + count);
+            }
+            return codes.get(promotionCodes[from + k]);
+        }
+
+        @Override
+        public int size() { return count; }
+    }
+}
@@ -27,6 +27,22 @@ public class PaymentMethod {
         this.remaining = limit;
     }
 
+    // Unchecked, for tryCreate.
+    private PaymentMethod(String id, BigDecimal discount, BigDecimal limit, BigDecimal remaining) {
+        this.id = id;
+        this.discount = discount;
+        this.limit = limit;
+        this.remaining = remaining;
+    }
+
+    // Same checks as the constructor without the exception, for bulk loading; null when any field is invalid.
+    public static PaymentMethod tryCreate(String id, BigDecimal discount, BigDecimal limit) {
+        if (id == null || id.isBlank() || discount == null || discount.signum() < 0 || limit == null || limit.signum() < 0) {
+            return null;
+        }
+        return new PaymentMethod(id, discount, limit, limit);
+    }
+
     public String getId() { return id; }
     public BigDecimal getDiscount() { return discount; }
     public BigDecimal getLimit() { return limit; }
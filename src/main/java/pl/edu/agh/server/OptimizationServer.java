@@ -0,0 +1,177 @@
+package pl.edu.agh.server;
+
+import pl.edu.agh.algorithm.FixedPoint;
+import pl.edu.agh.algorithm.GreedyPaymentOptimizer;
+import pl.edu.agh.algorithm.MethodRegistry;
+import pl.edu.agh.algorithm.MinorUnitOptimizer;
+import pl.edu.agh.exception.ErrorException;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.factory.OrderFactory;
+import pl.edu.agh.metrics.MetricsRecorder;
+import pl.edu.agh.metrics.MetricsSink;
+import pl.edu.agh.metrics.Phase;
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.PaymentMethod;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+// Keeps one parsed payment method catalog in a warm JVM and optimizes order batches posted over HTTP.
+//   POST /optimize  body: orders JSON array  ->  [{"id": "PUNKTY", "used": 100.00}, ...] (methods with usage only)
+//   GET  /health    ->  ok
+// Each request runs on its own virtual thread against its own budget ledger; the catalog is never mutated.
+public class OptimizationServer {
+    private static final Logger logger = Logger.getLogger(OptimizationServer.class.getName());
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private final List<PaymentMethod> catalog;
+    private final MethodRegistry registry;
+    private final MinorUnitOptimizer optimizer;
+    private final MetricsSink metricsSink;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public OptimizationServer(List<PaymentMethod> catalog, MinorUnitOptimizer optimizer) {
+        this(catalog, optimizer, null);
+    }
+
+    // Every request reports its metrics to the sink; null disables instrumentation.
+    public OptimizationServer(List<PaymentMethod> catalog, MinorUnitOptimizer optimizer, MetricsSink metricsSink) {
+        if (catalog == null || optimizer == null) {
+            throw new ErrorException("Catalog and optimizer must not be null");
+        }
+        this.catalog = List.copyOf(catalog);
+        this.registry = new MethodRegistry(this.catalog);
+        this.optimizer = optimizer;
+        this.metricsSink = metricsSink;
+    }
+
+    public synchronized void start(InetSocketAddress address) throws IOException {
+        if (server != null) {
+            throw new ErrorException("Server already started");
+        }
+        server = HttpServer.create(address, 0);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/optimize", this::handleOptimize);
+        server.createContext("/health", exchange -> respond(exchange, 200, "text/plain", "ok".getBytes()));
+        server.start();
+        logger.info("Optimization server listening on " + server.getAddress());
+    }
+
+    public synchronized void stop(int delaySeconds) {
+        if (server == null) return;
+        server.stop(delaySeconds);
+        executor.shutdown();
+        server = null;
+    }
+
+    public synchronized int getPort() {
+        if (server == null) {
+            throw new ErrorException("Server not started");
+        }
+        return server.getAddress().getPort();
+    }
+
+    private void handleOptimize(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", "POST");
+            respondError(exchange, 405, "Use POST with an orders JSON array");
+            return;
+        }
+        try {
+            MetricsRecorder metrics = metricsSink == null ? MetricsRecorder.DISABLED : new MetricsRecorder();
+            long start = metrics.start();
+            List<Order> orders = OrderFactory.fromJson(exchange.getRequestBody(), "request body");
+            metrics.stop(Phase.PARSE, start);
+            respond(exchange, 200, "application/json", usageJson(optimize(orders, metrics)));
+        } catch (ErrorException | WarningException e) {
+            logger.warning("Rejected optimization request: " + e.getMessage());
+            respondError(exchange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            logger.severe("Optimization request failed: " + e);
+            respondError(exchange, 500, "Internal error: " + e.getMessage());
+        }
+    }
+
+    // Usage per catalog method, in catalog order.
+    List<BigDecimal> optimize(List<Order> orders) throws WarningException {
+        return optimize(orders, MetricsRecorder.DISABLED);
+    }
+
+    private List<BigDecimal> optimize(List<Order> orders, MetricsRecorder metrics) throws WarningException {
+        List<BigDecimal> usage = new ArrayList<>(catalog.size());
+        if (MinorUnitOptimizer.supports(orders, registry)) {
+            // minor-unit engines spend from a fresh ledger and leave the shared registry untouched
+            long[] used = optimizer.optimize(orders, registry.newLedger(), metrics).getUsed();
+            for (long amount : used) {
+                usage.add(FixedPoint.toDecimal(amount));
+            }
+            if (metrics.isEnabled()) {
+                metricsSink.record(metrics.finish(registry, used));
+            }
+            return usage;
+        }
+        List<PaymentMethod> copies = new ArrayList<>(catalog.size());
+        for (PaymentMethod m : catalog) {
+            copies.add(new PaymentMethod(m.getId(), m.getDiscount(), m.getLimit()));
+        }
+        new GreedyPaymentOptimizer().optimize(orders, new MethodRegistry(copies), metrics);
+        if (metrics.isEnabled()) {
+            metricsSink.record(metrics.finish(copies));
+        }
+        for (PaymentMethod pm : copies) {
+            usage.add(pm.getLimit().subtract(pm.getRemaining()).setScale(2, RoundingMode.HALF_UP));
+        }
+        return usage;
+    }
+
+    private byte[] usageJson(List<BigDecimal> usage) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartArray();
+            for (int i = 0; i < usage.size(); i++) {
+                if (usage.get(i).compareTo(BigDecimal.ZERO) <= 0) continue;
+                json.writeStartObject();
+                json.writeStringField("id", registry.getId(i));
+                json.writeNumberField("used", usage.get(i));
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        }
+        return out.toByteArray();
+    }
+
+    private static void respondError(HttpExchange exchange, int status, String message) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("error", message);
+            json.writeEndObject();
+        }
+        respond(exchange, status, "application/json", out.toByteArray());
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import pl.edu.agh.factory.AllocationWriter;
+import pl.edu.agh.model.Allocation;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllocationWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testJsonLinesEscapeIds() throws Exception {
+        Path file = tempDir.resolve("allocations.jsonl");
+        try (AllocationWriter writer = AllocationWriter.open(file, AllocationWriter.formatOf(file))) {
+            writer.write(new Allocation("ORDER\"1", "mZysk", 15005));
+            writer.accept("ORDER2", "PUNKTY", 7);
+        }
+
+        assertEquals(List.of(
+                "{\"order\":\"ORDER\\\"1\",\"method\":\"mZysk\",\"amount\":150.05}",
+                "{\"order\":\"ORDER2\",\"method\":\"PUNKTY\",\"amount\":0.07}"), Files.readAllLines(file));
+    }
+
+    @Test
+    void testCsvQuotesFieldsAndSpansBufferFlushes() throws Exception {
+        Path file = tempDir.resolve("allocations.csv");
+        try (AllocationWriter writer = AllocationWriter.open(file, AllocationWriter.formatOf(file))) {
+            writer.accept("a,b", "zł \"karta\"", 100);
+            for (int i = 0; i < 20_000; i++) {
+                writer.accept("ORDER" + i, "CARD", i);
+            }
+            assertEquals(20_001, writer.getRows());
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(20_002, lines.size());
+        assertEquals("order,method,amount", lines.get(0));
+        assertEquals("\"a,b\",\"zł \"\"karta\"\"\",1.00", lines.get(1));
+        assertEquals("ORDER19999,CARD,199.99", lines.get(20_001));
+    }
+}
@@ -0,0 +1,103 @@
+import org.junit.jupiter.api.Test;
+import pl.edu.agh.algorithm.AnytimePaymentOptimizer;
+import pl.edu.agh.algorithm.BranchAndBoundPaymentOptimizer;
+import pl.edu.agh.algorithm.FixedPointPaymentOptimizer;
+import pl.edu.agh.algorithm.MethodRegistry;
+import pl.edu.agh.exception.ErrorException;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.metrics.Counter;
+import pl.edu.agh.metrics.MetricsRecorder;
+import pl.edu.agh.metrics.RunMetrics;
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnytimePaymentOptimizerTest {
+
+    @Test
+    void testZeroBudgetIsPlainGreedy() throws WarningException {
+        Random random = new Random(2);
+        for (int round = 0; round < 20; round++) {
+            List<Order> orders = Fixtures.orders(random, 1 + random.nextInt(40), 4);
+            MethodRegistry registry = new MethodRegistry(Fixtures.methodsWithCash(random, 4));
+            MetricsRecorder metrics = new MetricsRecorder();
+            long[] anytime = new AnytimePaymentOptimizer(Duration.ZERO).optimize(orders, registry.newLedger(), metrics)
+                    .getUsed();
+
+            assertArrayEquals(new FixedPointPaymentOptimizer().optimize(orders, registry), anytime);
+            assertEquals(0, gain(metrics, registry, anytime));
+        }
+    }
+
+    @Test
+    void testReachesExactResultOnSampleData() throws WarningException {
+        List<Order> orders = List.of(
+                new Order("ORDER1", new BigDecimal("100.00"), List.of("mZysk")),
+                new Order("ORDER2", new BigDecimal("200.00"), List.of("BosBankrut")),
+                new Order("ORDER3", new BigDecimal("150.00"), List.of("mZysk", "BosBankrut")),
+                new Order("ORDER4", new BigDecimal("50.00"), null));
+        MethodRegistry registry = new MethodRegistry(List.of(
+                new PaymentMethod("PUNKTY", new BigDecimal("15"), new BigDecimal("100.00")),
+                new PaymentMethod("mZysk", new BigDecimal("10"), new BigDecimal("180.00")),
+                new PaymentMethod("BosBankrut", new BigDecimal("5"), new BigDecimal("200.00"))));
+
+        long[] exact = new BranchAndBoundPaymentOptimizer().optimize(orders, registry);
+        MetricsRecorder metrics = new MetricsRecorder();
+        long[] anytime = new AnytimePaymentOptimizer(Duration.ofSeconds(5)).optimize(orders, registry.newLedger(), metrics)
+                .getUsed();
+        RunMetrics run = metrics.finish(registry, anytime);
+
+        assertArrayEquals(exact, anytime);
+        assertTrue(run.getCounter(Counter.DISCOUNT_GAINED) > 0);
+        // restarts that keep finding nothing end the search long before the budget: 16 stale restarts after at most
+        // one improving restart per grosz gained
+        long restarts = run.getCounter(Counter.RESTARTS);
+        assertTrue(restarts >= 16);
+        assertTrue(restarts <= 16 + run.getCounter(Counter.DISCOUNT_GAINED));
+    }
+
+    @Test
+    void testWorkersNeverWorseThanGreedy() throws WarningException {
+        Random random = new Random(8);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        AnytimePaymentOptimizer optimizer = new AnytimePaymentOptimizer(Duration.ofMillis(20), executor, 3);
+        try {
+            for (int round = 0; round < 30; round++) {
+                List<Order> orders = Fixtures.orders(random, 1 + random.nextInt(200), 4);
+                MethodRegistry registry = new MethodRegistry(Fixtures.methodsWithCash(random, 4));
+
+                long[] plain = new FixedPointPaymentOptimizer().optimize(orders, registry);
+                MetricsRecorder metrics = new MetricsRecorder();
+                long[] anytime = optimizer.optimize(orders, registry.newLedger(), metrics).getUsed();
+                long gain = gain(metrics, registry, anytime);
+
+                // the CASH method pays whatever is left, so less paid means more discount
+                assertTrue(gain >= 0);
+                assertEquals(Arrays.stream(plain).sum() - gain, Arrays.stream(anytime).sum());
+                for (int m = 0; m < registry.size(); m++) {
+                    assertTrue(anytime[m] <= registry.get(m).getLimit().movePointRight(2).longValueExact());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRejectsNegativeBudget() {
+        assertThrows(ErrorException.class, () -> new AnytimePaymentOptimizer(Duration.ofMillis(-1)));
+    }
+
+    private static long gain(MetricsRecorder metrics, MethodRegistry registry, long[] used) {
+        return metrics.finish(registry, used).getCounter(Counter.DISCOUNT_GAINED);
+    }
+}
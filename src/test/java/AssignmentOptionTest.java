@@ -0,0 +1,37 @@
+import org.junit.jupiter.api.Test;
+import pl.edu.agh.algorithm.AssignmentOption;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.PaymentMethod;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssignmentOptionTest {
+
+    @Test
+    void testDensityKeyMatchesProfitDensity() throws WarningException {
+        Order order = new Order("o1", new BigDecimal("100"), null);
+        PaymentMethod card = new PaymentMethod("CARD", new BigDecimal("10"), new BigDecimal("100"));
+        AssignmentOption option = new AssignmentOption(order, card, AssignmentOption.Type.CARD,
+                new BigDecimal("10.00"), new BigDecimal("90.00"));
+
+        assertEquals(new BigDecimal("0.1111111111"), option.getProfitDensity());
+        assertEquals(1111111111L, option.getDensityKey());
+    }
+
+    @Test
+    void testZeroCostRanksAboveAnyDensity() throws WarningException {
+        Order order = new Order("o1", new BigDecimal("0.01"), null);
+        PaymentMethod points = new PaymentMethod("PUNKTY", new BigDecimal("10"), new BigDecimal("100"));
+        AssignmentOption free = new AssignmentOption(order, points, AssignmentOption.Type.PARTIAL_POINTS,
+                BigDecimal.ZERO, new BigDecimal("0.00"));
+        AssignmentOption steep = new AssignmentOption(order, points, AssignmentOption.Type.FULL_POINTS,
+                new BigDecimal("1000000.00"), new BigDecimal("0.01"));
+
+        assertEquals(BigDecimal.valueOf(Double.MAX_VALUE), free.getProfitDensity());
+        assertEquals(Long.MAX_VALUE, free.getDensityKey());
+        assertTrue(free.getDensityKey() > steep.getDensityKey());
+    }
+}
@@ -0,0 +1,159 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import pl.edu.agh.algorithm.BudgetLedger;
+import pl.edu.agh.algorithm.FixedPointPaymentOptimizer;
+import pl.edu.agh.algorithm.MinorUnitOptimizer;
+import pl.edu.agh.algorithm.PointsSplit;
+import pl.edu.agh.batch.BatchJob;
+import pl.edu.agh.batch.BatchResult;
+import pl.edu.agh.batch.BatchRunner;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.metrics.Phase;
+import pl.edu.agh.metrics.RunMetrics;
+import pl.edu.agh.model.Order;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchRunnerTest {
+
+    private static final String ORDERS = "["
+            + "{\"id\": \"ORDER1\", \"value\": \"100.00\", \"promotions\": [\"mZysk\"]},"
+            + "{\"id\": \"ORDER2\", \"value\": \"200.00\", \"promotions\": [\"BosBankrut\"]},"
+            + "{\"id\": \"ORDER3\", \"value\": \"150.00\", \"promotions\": [\"mZysk\", \"BosBankrut\"]},"
+            + "{\"id\": \"ORDER4\", \"value\": \"50.00\"}"
+            + "]";
+    private static final String METHODS = "["
+            + "{\"id\": \"PUNKTY\", \"discount\": \"15\", \"limit\": \"100.00\"},"
+            + "{\"id\": \"mZysk\", \"discount\": \"10\", \"limit\": \"180.00\"},"
+            + "{\"id\": \"BosBankrut\", \"discount\": \"5\", \"limit\": \"200.00\"}"
+            + "]";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRunsEveryPairInDirectory() throws Exception {
+        Path in = Files.createDirectories(tempDir.resolve("in"));
+        Path out = tempDir.resolve("out");
+        for (int i = 0; i < 12; i++) {
+            Files.writeString(in.resolve("b" + i + "-orders.json"), ORDERS);
+            Files.writeString(in.resolve("b" + i + "-paymentmethods.json"), METHODS);
+        }
+
+        List<BatchJob> jobs = BatchJob.fromDirectory(in, out);
+        List<BatchResult> results = new BatchRunner(3, new FixedPointPaymentOptimizer()).run(jobs);
+
+        assertEquals(12, results.size());
+        for (BatchResult result : results) {
+            assertTrue(result.isSuccess(), result.getError());
+            assertEquals(List.of("PUNKTY 100.00", "mZysk 180.00", "BosBankrut 170.00"),
+                    Files.readAllLines(result.getJob().getOutputPath()));
+        }
+    }
+
+    @Test
+    void testSingleThreadParsesAndOptimizesOnOneThread() throws Exception {
+        Set<Thread> threads = Collections.synchronizedSet(new HashSet<>());
+        MinorUnitOptimizer recording = new MinorUnitOptimizer() {
+            @Override
+            public BudgetLedger optimize(List<Order> orders, BudgetLedger ledger) {
+                threads.add(Thread.currentThread());
+                return new FixedPointPaymentOptimizer().optimize(orders, ledger);
+            }
+        };
+        List<RunMetrics> runs = Collections.synchronizedList(new ArrayList<>());
+
+        List<BatchResult> results = new BatchRunner(1, recording, PointsSplit.DEFAULT, runs::add)
+                .run(BatchJob.fromDirectory(writePairs(4), tempDir.resolve("out")));
+
+        assertEquals(4, results.stream().filter(BatchResult::isSuccess).count());
+        assertEquals(1, threads.size());
+        assertEquals(4, runs.size());
+        assertTrue(runs.get(0).getPhaseNanos(Phase.PARSE) > 0);
+    }
+
+    @Test
+    void testOptimizerErrorCancelsTheBatch() throws Exception {
+        MinorUnitOptimizer failing = new MinorUnitOptimizer() {
+            @Override
+            public BudgetLedger optimize(List<Order> orders, BudgetLedger ledger) {
+                throw new StackOverflowError("boom");
+            }
+        };
+        List<BatchJob> jobs = BatchJob.fromDirectory(writePairs(20), tempDir.resolve("out"));
+
+        // parsers would otherwise block forever on the full queue once every optimizer thread has died
+        Error error = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> assertThrows(StackOverflowError.class, () -> new BatchRunner(4, failing).run(jobs)));
+        assertEquals("boom", error.getMessage());
+    }
+
+    @Test
+    void testManifestJobFailuresDoNotStopTheBatch() throws Exception {
+        Files.writeString(tempDir.resolve("orders.json"), ORDERS);
+        Files.writeString(tempDir.resolve("broken.json"), "[{\"id\": ");
+        Files.writeString(tempDir.resolve("methods.json"), METHODS);
+        Path manifest = tempDir.resolve("jobs.txt");
+        Files.writeString(manifest, "# comment\norders.json methods.json first\n\nbroken.json methods.json\n");
+
+        List<BatchJob> jobs = BatchJob.fromManifest(manifest, tempDir.resolve("out"));
+        List<BatchResult> results = new BatchRunner(1, new FixedPointPaymentOptimizer()).run(jobs);
+
+        assertEquals("first", results.get(0).getJob().getName());
+        assertTrue(results.get(0).isSuccess());
+        assertTrue(Files.exists(tempDir.resolve("out").resolve("first.txt")));
+        assertFalse(results.get(1).isSuccess());
+        assertFalse(Files.exists(tempDir.resolve("out").resolve("broken.txt")));
+    }
+
+    @Test
+    void testManifestDefaultNamesDoNotCollide() throws Exception {
+        for (String dir : List.of("a", "b")) {
+            Files.createDirectories(tempDir.resolve(dir));
+            Files.writeString(tempDir.resolve(dir).resolve("orders.json"), ORDERS);
+        }
+        Files.writeString(tempDir.resolve("methods.json"), METHODS);
+        Path manifest = tempDir.resolve("jobs.txt");
+        Files.writeString(manifest, "a/orders.json methods.json\nb/orders.json methods.json\n"
+                + "a/orders.json methods.json orders-2\n");
+
+        List<BatchJob> jobs = BatchJob.fromManifest(manifest, tempDir.resolve("out"));
+
+        assertEquals(List.of("orders", "orders-3", "orders-2"), jobs.stream().map(BatchJob::getName).toList());
+        assertEquals(3, jobs.stream().map(BatchJob::getOutputPath).distinct().count());
+    }
+
+    @Test
+    void testManifestRepeatedExplicitNameIsRejected() throws Exception {
+        Path manifest = tempDir.resolve("jobs.txt");
+        Files.writeString(manifest, "a.json m.json same\nb.json m.json same\n");
+
+        assertThrows(WarningException.class, () -> BatchJob.fromManifest(manifest, tempDir.resolve("out")));
+    }
+
+    @Test
+    void testDirectoryWithoutMatchingMethodsIsRejected() throws Exception {
+        Files.writeString(tempDir.resolve("x-orders.json"), ORDERS);
+
+        assertThrows(WarningException.class, () -> BatchJob.fromDirectory(tempDir, tempDir.resolve("out")));
+    }
+
+    private Path writePairs(int count) throws Exception {
+        Path in = Files.createDirectories(tempDir.resolve("in"));
+        for (int i = 0; i < count; i++) {
+            Files.writeString(in.resolve("b" + i + "-orders.json"), ORDERS);
+            Files.writeString(in.resolve("b" + i + "-paymentmethods.json"), METHODS);
+        }
+        return in;
+    }
+}
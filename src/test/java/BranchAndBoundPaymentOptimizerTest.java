@@ -0,0 +1,98 @@
+import org.junit.jupiter.api.Test;
+import pl.edu.agh.algorithm.BranchAndBoundPaymentOptimizer;
+import pl.edu.agh.algorithm.MethodRegistry;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BranchAndBoundPaymentOptimizerTest {
+
+    private final BranchAndBoundPaymentOptimizer optimizer = new BranchAndBoundPaymentOptimizer(Duration.ofSeconds(5));
+
+    @Test
+    void testBeatsGreedyWhenCardLimitIsContended() throws WarningException {
+        // greedy gives the single card slot to the denser small order and loses the larger discount
+        Order small = new Order("small", new BigDecimal("50"), List.of("CARD"));
+        Order large = new Order("large", new BigDecimal("100"), List.of("CARD"));
+        PaymentMethod card = new PaymentMethod("CARD", new BigDecimal("10"), new BigDecimal("90"));
+        MethodRegistry registry = new MethodRegistry(List.of(card));
+
+        BranchAndBoundPaymentOptimizer.Solution solution = optimizer.solve(List.of(small, large), registry);
+
+        assertTrue(solution.isOptimal());
+        assertEquals(1000, solution.getDiscount());
+        assertEquals(0.0, solution.getGap(), 0.0);
+    }
+
+    @Test
+    void testMatchesExhaustiveSearchOnSmallBatches() throws WarningException {
+        Random random = new Random(11);
+        for (int round = 0; round < 150; round++) {
+            List<PaymentMethod> methods = new ArrayList<>();
+            methods.add(new PaymentMethod("PUNKTY", BigDecimal.valueOf(random.nextInt(25)),
+                    BigDecimal.valueOf(random.nextInt(20_000), 2)));
+            methods.add(new PaymentMethod("CARD1", BigDecimal.valueOf(random.nextInt(20)),
+                    BigDecimal.valueOf(random.nextInt(30_000), 2)));
+            methods.add(new PaymentMethod("CARD2", BigDecimal.valueOf(random.nextInt(20)),
+                    BigDecimal.valueOf(random.nextInt(30_000), 2)));
+            List<Order> orders = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(6); i++) {
+                List<String> promos = new ArrayList<>();
+                if (random.nextBoolean()) promos.add("CARD1");
+                if (random.nextBoolean()) promos.add("CARD2");
+                orders.add(new Order("o" + i, BigDecimal.valueOf(100 + random.nextInt(20_000), 2), promos.isEmpty() ? null : promos));
+            }
+
+            BranchAndBoundPaymentOptimizer.Solution solution = optimizer.solve(orders, new MethodRegistry(methods));
+
+            assertTrue(solution.isOptimal());
+            assertEquals(exhaustiveBest(orders, methods), solution.getDiscount(), "round " + round);
+        }
+    }
+
+    private static long exhaustiveBest(List<Order> orders, List<PaymentMethod> methods) {
+        long[] limits = new long[methods.size()];
+        for (int j = 0; j < limits.length; j++) {
+            limits[j] = methods.get(j).getLimit().movePointRight(2).longValueExact();
+        }
+        return search(orders, methods, 0, limits);
+    }
+
+    private static long search(List<Order> orders, List<PaymentMethod> methods, int index, long[] limits) {
+        if (index == orders.size()) return 0;
+        Order order = orders.get(index);
+        long value = order.getValue().movePointRight(2).longValueExact();
+        long best = search(orders, methods, index + 1, limits);
+        for (int j = 0; j < methods.size(); j++) {
+            PaymentMethod m = methods.get(j);
+            boolean points = "PUNKTY".equals(m.getId());
+            if (!points && (order.getPromotions() == null || !order.getPromotions().contains(m.getId()))) continue;
+            long rate = m.getDiscount().movePointRight(4).longValueExact();
+            long profit = (value * rate + 500_000) / 1_000_000;
+            best = Math.max(best, tryOption(orders, methods, index, limits, j, profit, value - profit));
+            if (points) {
+                for (int k = 1; k <= 9; k++) {
+                    best = Math.max(best, tryOption(orders, methods, index, limits, j, (value + 5) / 10, (value * k + 5) / 10));
+                }
+            }
+        }
+        return best;
+    }
+
+    private static long tryOption(List<Order> orders, List<PaymentMethod> methods, int index, long[] limits,
+                                  int method, long profit, long cost) {
+        if (cost > limits[method]) return Long.MIN_VALUE;
+        limits[method] -= cost;
+        long total = profit + search(orders, methods, index + 1, limits);
+        limits[method] += cost;
+        return total;
+    }
+}
@@ -0,0 +1,58 @@
+import org.junit.jupiter.api.Test;
+import pl.edu.agh.algorithm.BudgetLedger;
+import pl.edu.agh.algorithm.FixedPointPaymentOptimizer;
+import pl.edu.agh.algorithm.MethodRegistry;
+import pl.edu.agh.exception.ErrorException;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BudgetLedgerTest {
+
+    @Test
+    void testForkedLedgersAreIndependent() throws WarningException {
+        PaymentMethod card = new PaymentMethod("CARD", new BigDecimal("10"), new BigDecimal("100.50"));
+        MethodRegistry registry = new MethodRegistry(List.of(card));
+
+        BudgetLedger ledger = registry.newLedger();
+        ledger.use(0, 5000);
+        BudgetLedger fork = ledger.fork();
+        fork.use(0, 50);
+
+        assertEquals(5050, ledger.getRemaining(0));
+        assertEquals(5000, fork.getRemaining(0));
+        assertEquals(5050, fork.getUsed(0));
+        assertEquals(new BigDecimal("100.50"), card.getRemaining());
+        assertThrows(ErrorException.class, () -> fork.use(0, 5001));
+    }
+
+    @Test
+    void testOptimizerSpendsFromLedgerWithoutMutatingMethods() throws WarningException {
+        PaymentMethod punkty = new PaymentMethod("PUNKTY", new BigDecimal("15"), new BigDecimal("100"));
+        PaymentMethod card = new PaymentMethod("mZysk", new BigDecimal("10"), new BigDecimal("180"));
+        MethodRegistry registry = new MethodRegistry(List.of(punkty, card));
+        List<Order> orders = List.of(new Order("ORDER1", new BigDecimal("100"), List.of("mZysk")));
+
+        FixedPointPaymentOptimizer optimizer = new FixedPointPaymentOptimizer();
+        BudgetLedger first = optimizer.optimize(orders, registry.newLedger());
+        BudgetLedger second = optimizer.optimize(orders, registry.newLedger());
+
+        assertArrayEquals(first.getUsed(), second.getUsed());
+        assertEquals(new BigDecimal("100"), punkty.getRemaining());
+        assertEquals(new BigDecimal("180"), card.getRemaining());
+    }
+
+    @Test
+    void testLimitsWithMoreDecimalsHaveNoLedger() throws WarningException {
+        PaymentMethod card = new PaymentMethod("CARD", new BigDecimal("10"), new BigDecimal("1.005"));
+        MethodRegistry registry = new MethodRegistry(List.of(card));
+
+        assertFalse(registry.hasMinorUnitLimits());
+        assertThrows(ErrorException.class, registry::newLedger);
+    }
+}
@@ -0,0 +1,104 @@
+import org.junit.jupiter.api.Test;
+import pl.edu.agh.algorithm.ComponentPaymentOptimizer;
+import pl.edu.agh.algorithm.FixedPointPaymentOptimizer;
+import pl.edu.agh.algorithm.MethodRegistry;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComponentPaymentOptimizerTest {
+
+    @Test
+    void testMatchesGreedyWithoutPointsSplit() throws WarningException {
+        Random random = new Random(5);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 100; round++) {
+                boolean withPoints = round % 2 == 0;
+                List<Order> orders = clusteredOrders(random, 1 + random.nextInt(80));
+                Random catalog = new Random(round);
+                MethodRegistry registry = new MethodRegistry(withPoints ? Fixtures.methods(catalog, 7) : Fixtures.cards(catalog, 7));
+
+                long[] expected = new FixedPointPaymentOptimizer().optimize(orders, registry);
+                assertArrayEquals(expected, new ComponentPaymentOptimizer(executor, false).optimize(orders, registry));
+                if (!withPoints) {
+                    assertArrayEquals(expected, new ComponentPaymentOptimizer(executor, true).optimize(orders, registry));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testParallelMatchesSequentialWithPointsSplit() throws WarningException {
+        Random random = new Random(9);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 100; round++) {
+                List<Order> orders = clusteredOrders(random, 1 + random.nextInt(80));
+                MethodRegistry registry = new MethodRegistry(Fixtures.methods(new Random(round), 7));
+
+                long[] sequential = new ComponentPaymentOptimizer(null, true).optimize(orders, registry);
+                long[] parallel = new ComponentPaymentOptimizer(executor, true).optimize(orders, registry);
+
+                assertArrayEquals(sequential, parallel);
+                long total = 0;
+                for (Order order : orders) total += order.getValue().movePointRight(2).longValueExact();
+                assertTrue(Arrays.stream(sequential).sum() <= total);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testPointsShareFollowsComponentValue() throws WarningException {
+        // two independent card groups; 30.00 of points split 1:2 lets each group pay 10% of every order with points
+        Order a = new Order("a", new BigDecimal("100"), List.of("CARD1"));
+        Order b = new Order("b", new BigDecimal("200"), List.of("CARD2"));
+        PaymentMethod punkty = new PaymentMethod("PUNKTY", new BigDecimal("15"), new BigDecimal("30"));
+        PaymentMethod card1 = new PaymentMethod("CARD1", new BigDecimal("5"), new BigDecimal("0"));
+        PaymentMethod card2 = new PaymentMethod("CARD2", new BigDecimal("5"), new BigDecimal("0"));
+        PaymentMethod other = new PaymentMethod("OTHER", new BigDecimal("0"), new BigDecimal("1000"));
+        MethodRegistry registry = new MethodRegistry(List.of(punkty, card1, card2, other));
+
+        long[] used = new ComponentPaymentOptimizer(null, true).optimize(List.of(a, b), registry);
+
+        assertArrayEquals(new long[]{3000, 0, 0, 24000}, used);
+    }
+
+    @Test
+    void testEmptyOrdersSpendNothing() throws WarningException {
+        PaymentMethod punkty = new PaymentMethod("PUNKTY", new BigDecimal("15"), new BigDecimal("30"));
+        PaymentMethod card = new PaymentMethod("CARD", new BigDecimal("5"), new BigDecimal("100"));
+        MethodRegistry registry = new MethodRegistry(List.of(punkty, card));
+
+        assertArrayEquals(new long[]{0, 0}, new ComponentPaymentOptimizer(null, false).optimize(List.of(), registry));
+        assertArrayEquals(new long[]{0, 0}, new ComponentPaymentOptimizer(null, true).optimize(List.of(), registry));
+    }
+
+    private static List<Order> clusteredOrders(Random random, int count) throws WarningException {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int cluster = random.nextInt(3);
+            List<String> promos = new ArrayList<>();
+            if (random.nextInt(4) != 0) promos.add("CARD" + (2 * cluster + 1));
+            if (random.nextInt(3) == 0) promos.add("CARD" + (2 * cluster + 2));
+            BigDecimal value = BigDecimal.valueOf(1 + random.nextInt(50_000), 2);
+            String id = random.nextInt(20) == 0 && i > 0 ? "ORDER" + (i - 1) : "ORDER" + i;
+            orders.add(new Order(id, value, promos.isEmpty() ? null : promos));
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,214 @@
+import org.junit.jupiter.api.Test;
+import pl.edu.agh.algorithm.AllocationPolicy;
+import pl.edu.agh.algorithm.AllocationResult;
+import pl.edu.agh.algorithm.FixedPoint;
+import pl.edu.agh.algorithm.FixedPointPaymentOptimizer;
+import pl.edu.agh.algorithm.GreedyPaymentOptimizer;
+import pl.edu.agh.algorithm.MethodRegistry;
+import pl.edu.agh.algorithm.PointsSplit;
+import pl.edu.agh.exception.ErrorException;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.metrics.Counter;
+import pl.edu.agh.metrics.MetricsRecorder;
+import pl.edu.agh.model.Allocation;
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointPaymentOptimizerTest {
+
+    private final FixedPointPaymentOptimizer optimizer = new FixedPointPaymentOptimizer();
+
+    @Test
+    void testPartialPointsPreference() throws WarningException {
+        Order order = new Order("o1", new BigDecimal("100"), null);
+        PaymentMethod punkty = new PaymentMethod("PUNKTY", new BigDecimal("50"), new BigDecimal("100"));
+        PaymentMethod card = new PaymentMethod("CARD1", new BigDecimal("10"), new BigDecimal("100"));
+        MethodRegistry registry = new MethodRegistry(List.of(punkty, card));
+
+        long[] used = optimizer.optimize(List.of(order), registry);
+
+        assertArrayEquals(new long[]{9000, 0}, used);
+        assertEquals(new BigDecimal("100"), punkty.getRemaining());
+    }
+
+    @Test
+    void testSupportsOnlyTwoDecimalAmounts() throws WarningException {
+        PaymentMethod card = new PaymentMethod("CARD", new BigDecimal("10"), new BigDecimal("100.00"));
+        MethodRegistry registry = new MethodRegistry(List.of(card));
+
+        assertTrue(FixedPointPaymentOptimizer.supports(List.of(new Order("o1", new BigDecimal("12.50"), null)), registry));
+        assertFalse(FixedPointPaymentOptimizer.supports(List.of(new Order("o1", new BigDecimal("12.505"), null)), registry));
+    }
+
+    @Test
+    void testOverflowingDiscountThrowsErrorException() throws WarningException {
+        List<Order> orders = List.of(new Order("o1", new BigDecimal("9999999999.99"), List.of("CARD")));
+        PaymentMethod card = new PaymentMethod("CARD", new BigDecimal("5000"), new BigDecimal("100.00"));
+        MethodRegistry registry = new MethodRegistry(List.of(card));
+
+        assertThrows(ErrorException.class, () -> optimizer.optimize(orders, registry));
+        assertThrows(ErrorException.class, () -> FixedPoint.applyRate(Long.MAX_VALUE / 2, 3_000_000));
+    }
+
+    @Test
+    void testParityWithBigDecimalOptimizer() throws WarningException {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            int methodCount = 1 + random.nextInt(5);
+            List<Order> orders = randomOrders(random, 1 + random.nextInt(60), methodCount);
+
+            List<PaymentMethod> reference = Fixtures.methods(new Random(round), methodCount - 1);
+            List<PaymentMethod> fixed = Fixtures.methods(new Random(round), methodCount - 1);
+
+            new GreedyPaymentOptimizer().optimizePayments(orders, reference);
+            long[] used = optimizer.optimize(orders, new MethodRegistry(fixed));
+
+            for (int i = 0; i < methodCount; i++) {
+                PaymentMethod pm = reference.get(i);
+                BigDecimal expected = pm.getLimit().subtract(pm.getRemaining()).setScale(2);
+                assertEquals(expected, BigDecimal.valueOf(used[i], 2), "round " + round + ", method " + pm.getId());
+            }
+        }
+    }
+
+    @Test
+    void testLargestLimitFirstPaysFromTheRoomiestCard() throws WarningException {
+        Order order = new Order("o1", new BigDecimal("100"), null);
+        PaymentMethod small = new PaymentMethod("CARD1", new BigDecimal("0"), new BigDecimal("50"));
+        PaymentMethod large = new PaymentMethod("CARD2", new BigDecimal("0"), new BigDecimal("200"));
+        MethodRegistry registry = new MethodRegistry(List.of(small, large));
+
+        assertArrayEquals(new long[]{5000, 5000}, optimizer.optimize(List.of(order), registry));
+        assertArrayEquals(new long[]{0, 10000}, new FixedPointPaymentOptimizer(null, AllocationPolicy.LARGEST_LIMIT_FIRST)
+                .optimize(List.of(order), registry));
+    }
+
+    @Test
+    void testAllocationPoliciesMatchBigDecimalOptimizer() throws WarningException {
+        Random random = new Random(17);
+        for (AllocationPolicy policy : List.of(AllocationPolicy.LARGEST_LIMIT_FIRST, AllocationPolicy.LARGEST_DUE_FIRST)) {
+            for (int round = 0; round < 100; round++) {
+                int methodCount = 1 + random.nextInt(5);
+                List<Order> orders = randomOrders(random, 1 + random.nextInt(60), methodCount);
+
+                List<PaymentMethod> reference = Fixtures.methods(new Random(round), methodCount - 1);
+                List<PaymentMethod> fixed = Fixtures.methods(new Random(round), methodCount - 1);
+
+                new GreedyPaymentOptimizer(null, policy).optimizePayments(orders, reference);
+                long[] used = new FixedPointPaymentOptimizer(null, policy).optimize(orders, new MethodRegistry(fixed));
+
+                for (int i = 0; i < methodCount; i++) {
+                    PaymentMethod pm = reference.get(i);
+                    BigDecimal expected = pm.getLimit().subtract(pm.getRemaining()).setScale(2);
+                    assertEquals(expected, BigDecimal.valueOf(used[i], 2), "round " + round + ", method " + pm.getId());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testPointsSplitsMatchBigDecimalOptimizer() throws WarningException {
+        Random random = new Random(23);
+        for (PointsSplit split : List.of(PointsSplit.grid(5), PointsSplit.grid(30), PointsSplit.minimal())) {
+            for (int round = 0; round < 100; round++) {
+                int methodCount = 1 + random.nextInt(5);
+                List<Order> orders = randomOrders(random, 1 + random.nextInt(60), methodCount);
+
+                List<PaymentMethod> reference = Fixtures.methods(new Random(round), methodCount - 1);
+                List<PaymentMethod> fixed = Fixtures.methods(new Random(round), methodCount - 1);
+
+                new GreedyPaymentOptimizer(null, AllocationPolicy.CATALOG_ORDER, split).optimizePayments(orders, reference);
+                long[] used = new FixedPointPaymentOptimizer(null, AllocationPolicy.CATALOG_ORDER, split)
+                        .optimize(orders, new MethodRegistry(fixed));
+
+                for (int i = 0; i < methodCount; i++) {
+                    PaymentMethod pm = reference.get(i);
+                    BigDecimal expected = pm.getLimit().subtract(pm.getRemaining()).setScale(2);
+                    assertEquals(expected, BigDecimal.valueOf(used[i], 2), "round " + round + ", method " + pm.getId());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testMinimalSplitQualifiesWithOneOption() throws WarningException {
+        // 10% of 12.31 is 123.1 grosze; HALF_UP would pay 1.23 and fall short, the minimal amount rounds up
+        Order order = new Order("o1", new BigDecimal("12.31"), null);
+        PaymentMethod punkty = new PaymentMethod("PUNKTY", new BigDecimal("15"), new BigDecimal("1.24"));
+        PaymentMethod card = new PaymentMethod("CARD1", new BigDecimal("0"), new BigDecimal("100"));
+        MethodRegistry registry = new MethodRegistry(List.of(punkty, card));
+
+        MetricsRecorder metrics = new MetricsRecorder();
+        long[] used = new FixedPointPaymentOptimizer(null, AllocationPolicy.CATALOG_ORDER, PointsSplit.minimal())
+                .optimize(List.of(order), registry.newLedger(), metrics).getUsed();
+
+        assertArrayEquals(new long[]{124, 984}, used);
+        assertEquals(2, metrics.finish(registry, used).getCounter(Counter.OPTIONS_GENERATED));
+    }
+
+    @Test
+    void testPointsSplitParsing() throws WarningException {
+        assertEquals(PointsSplit.grid(25), PointsSplit.parse("grid:25"));
+        assertEquals(PointsSplit.minimal(), PointsSplit.parse("minimal"));
+        assertThrows(WarningException.class, () -> PointsSplit.parse("grid:0"));
+        assertThrows(WarningException.class, () -> PointsSplit.parse("analytic"));
+    }
+
+    @Test
+    void testAllocationsAddUpToMethodTotals() throws Exception {
+        Random random = new Random(31);
+        for (int round = 0; round < 100; round++) {
+            int methodCount = 1 + random.nextInt(5);
+            List<Order> orders = randomOrders(random, 1 + random.nextInt(60), methodCount);
+            MethodRegistry registry = new MethodRegistry(Fixtures.methods(new Random(round), methodCount - 1));
+
+            long[] expected = optimizer.optimize(orders, registry);
+            AllocationResult result = optimizer.allocate(orders, registry.newLedger());
+
+            long[] total = new long[methodCount];
+            result.forEach((orderId, methodId, amount) -> {
+                assertTrue(amount > 0);
+                total[registry.indexOf(methodId)] += amount;
+            });
+            assertArrayEquals(expected, total);
+        }
+    }
+
+    @Test
+    void testAllocationsSplitOrderBetweenPointsAndCard() throws WarningException {
+        Order order = new Order("o1", new BigDecimal("100"), null);
+        PaymentMethod punkty = new PaymentMethod("PUNKTY", new BigDecimal("15"), new BigDecimal("30"));
+        PaymentMethod card = new PaymentMethod("CARD1", new BigDecimal("0"), new BigDecimal("100"));
+        MethodRegistry registry = new MethodRegistry(List.of(punkty, card));
+
+        AllocationResult result = optimizer.allocate(List.of(order), registry.newLedger());
+
+        assertEquals(1, result.getOrderCount());
+        assertEquals(List.of(new Allocation("o1", "PUNKTY", 3000), new Allocation("o1", "CARD1", 6000)),
+                result.getAllocations(0));
+    }
+
+    // Fixtures.orders with an occasional repeated id and unknown promotion mixed in.
+    private static List<Order> randomOrders(Random random, int count, int methodCount) throws WarningException {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String id = random.nextInt(20) == 0 && i > 0 ? "ORDER" + (i - 1) : "ORDER" + i;
+            Order order = Fixtures.order(random, id, methodCount - 1);
+            if (random.nextInt(10) == 0) {
+                List<String> promos = new ArrayList<>();
+                if (order.getPromotions() != null) promos.addAll(order.getPromotions());
+                promos.add("UNKNOWN");
+                order = new Order(id, order.getValue(), promos);
+            }
+            orders.add(order);
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,61 @@
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Random order books and catalogs shared by the optimizer tests. Cards are named CARD1..CARDn, so orders and
+// catalogs built for the same card count fit together.
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    // Orders ORDER0..ORDER<count - 1>, each promoted on every card with probability 1/3.
+    static List<Order> orders(Random random, int count, int cards) throws WarningException {
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orders.add(order(random, "ORDER" + i, cards));
+        }
+        return orders;
+    }
+
+    // Value between 0.01 and 500.00.
+    static Order order(Random random, String id, int cards) throws WarningException {
+        List<String> promos = new ArrayList<>();
+        for (int j = 1; j <= cards; j++) {
+            if (random.nextInt(3) == 0) promos.add("CARD" + j);
+        }
+        return new Order(id, BigDecimal.valueOf(1 + random.nextInt(50_000), 2), promos.isEmpty() ? null : promos);
+    }
+
+    // PUNKTY (0-29%, up to 1000.00) followed by the cards.
+    static List<PaymentMethod> methods(Random random, int cards) throws WarningException {
+        List<PaymentMethod> methods = new ArrayList<>();
+        methods.add(new PaymentMethod("PUNKTY", BigDecimal.valueOf(random.nextInt(30)),
+                BigDecimal.valueOf(random.nextInt(100_000), 2)));
+        methods.addAll(cards(random, cards));
+        return methods;
+    }
+
+    // Cards with 0-24.9% discounts and limits up to 5000.00.
+    static List<PaymentMethod> cards(Random random, int cards) throws WarningException {
+        List<PaymentMethod> methods = new ArrayList<>(cards);
+        for (int j = 1; j <= cards; j++) {
+            methods.add(new PaymentMethod("CARD" + j, BigDecimal.valueOf(random.nextInt(250), 1),
+                    BigDecimal.valueOf(random.nextInt(500_000), 2)));
+        }
+        return methods;
+    }
+
+    // methods(random, cards) plus a CASH method without discount that can pay every order in full, so nothing is
+    // left unpaid and less paid in total means more discount.
+    static List<PaymentMethod> methodsWithCash(Random random, int cards) throws WarningException {
+        List<PaymentMethod> methods = methods(random, cards);
+        methods.add(new PaymentMethod("CASH", BigDecimal.ZERO, new BigDecimal("10000000")));
+        return methods;
+    }
+}
@@ -8,6 +8,8 @@ import pl.edu.agh.model.PaymentMethod;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -74,4 +76,34 @@ class GreedyPaymentOptimizerTest {
 
         assertEquals(new BigDecimal("0.00"), card.getRemaining());
     }
+
+    @Test
+    void testParallelGenerationMatchesSequential() throws Exception {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            List<String> promos = i % 3 == 0 ? List.of("CARD1") : i % 3 == 1 ? List.of("CARD2", "CARD1") : null;
+            orders.add(new Order("o" + i, BigDecimal.valueOf(100 + (i * 37L) % 9_000, 2), promos));
+        }
+        List<PaymentMethod> sequential = methodsForParallelRun();
+        List<PaymentMethod> parallel = methodsForParallelRun();
+
+        optimizer.optimizePayments(orders, sequential);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            new GreedyPaymentOptimizer(executor).optimizePayments(orders, parallel);
+        } finally {
+            executor.shutdown();
+        }
+
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.get(i).getRemaining(), parallel.get(i).getRemaining());
+        }
+    }
+
+    private static List<PaymentMethod> methodsForParallelRun() throws WarningException {
+        return List.of(
+                new PaymentMethod("PUNKTY", new BigDecimal("15"), new BigDecimal("20000")),
+                new PaymentMethod("CARD1", new BigDecimal("10"), new BigDecimal("50000")),
+                new PaymentMethod("CARD2", new BigDecimal("5"), new BigDecimal("100000")));
+    }
 }
@@ -0,0 +1,70 @@
+import org.junit.jupiter.api.Test;
+import pl.edu.agh.algorithm.AllocationPolicy;
+import pl.edu.agh.algorithm.FixedPointPaymentOptimizer;
+import pl.edu.agh.algorithm.LazyGreedyPaymentOptimizer;
+import pl.edu.agh.algorithm.MethodRegistry;
+import pl.edu.agh.algorithm.PointsSplit;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyGreedyPaymentOptimizerTest {
+
+    private static final List<PointsSplit> SPLITS = List.of(PointsSplit.minimal(), PointsSplit.grid(5), PointsSplit.grid(30));
+
+    private final LazyGreedyPaymentOptimizer optimizer = new LazyGreedyPaymentOptimizer();
+
+    @Test
+    void testFallsBackToNextOptionWhenCardLimitIsUsedUp() throws WarningException {
+        Order o1 = new Order("o1", new BigDecimal("100"), List.of("CARD"));
+        Order o2 = new Order("o2", new BigDecimal("100"), List.of("CARD"));
+        PaymentMethod punkty = new PaymentMethod("PUNKTY", new BigDecimal("5"), new BigDecimal("10"));
+        PaymentMethod card = new PaymentMethod("CARD", new BigDecimal("20"), new BigDecimal("100"));
+        MethodRegistry registry = new MethodRegistry(List.of(punkty, card));
+
+        long[] used = optimizer.optimize(List.of(o1, o2), registry);
+
+        assertArrayEquals(new long[]{1000, 10000}, used);
+    }
+
+    @Test
+    void testMatchesFullyMaterialisedGreedy() throws WarningException {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            int methodCount = 1 + random.nextInt(6);
+            List<PaymentMethod> methods = new ArrayList<>();
+            if (random.nextInt(5) > 0) {
+                methods.add(new PaymentMethod("PUNKTY", BigDecimal.valueOf(random.nextInt(30)),
+                        BigDecimal.valueOf(random.nextInt(50_000), 2)));
+            }
+            for (int j = 1; j < methodCount; j++) {
+                methods.add(new PaymentMethod("CARD" + j, BigDecimal.valueOf(random.nextInt(250), 1),
+                        BigDecimal.valueOf(random.nextInt(300_000), 2)));
+            }
+            List<Order> orders = new ArrayList<>();
+            int orderCount = 1 + random.nextInt(80);
+            for (int i = 0; i < orderCount; i++) {
+                List<String> promos = new ArrayList<>();
+                for (int j = 1; j < methodCount; j++) {
+                    if (random.nextBoolean()) promos.add("CARD" + j);
+                }
+                String id = random.nextInt(15) == 0 && i > 0 ? "ORDER" + (i - 1) : "ORDER" + i;
+                orders.add(new Order(id, BigDecimal.valueOf(1 + random.nextInt(40_000), 2), promos.isEmpty() ? null : promos));
+            }
+            MethodRegistry registry = new MethodRegistry(methods);
+
+            assertArrayEquals(new FixedPointPaymentOptimizer().optimize(orders, registry), optimizer.optimize(orders, registry));
+            PointsSplit split = SPLITS.get(round % SPLITS.size());
+            AllocationPolicy policy = round % 2 == 0 ? AllocationPolicy.CATALOG_ORDER : AllocationPolicy.LARGEST_DUE_FIRST;
+            assertArrayEquals(new FixedPointPaymentOptimizer(null, policy, split).optimize(orders, registry),
+                    new LazyGreedyPaymentOptimizer(policy, split).optimize(orders, registry));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+import org.junit.jupiter.api.Test;
+import pl.edu.agh.algorithm.FixedPointPaymentOptimizer;
+import pl.edu.agh.algorithm.LocalSearchPaymentOptimizer;
+import pl.edu.agh.algorithm.MethodRegistry;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.metrics.Counter;
+import pl.edu.agh.metrics.MetricsRecorder;
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalSearchPaymentOptimizerTest {
+
+    @Test
+    void testEjectsLowValueOrderFromContendedCard() throws WarningException {
+        // greedy spends the card on the small order first; swapping it out for the large one saves more
+        Order small = new Order("small", new BigDecimal("50"), List.of("CARD"));
+        Order large = new Order("large", new BigDecimal("100"), List.of("CARD"));
+        PaymentMethod card = new PaymentMethod("CARD", new BigDecimal("10"), new BigDecimal("90"));
+        PaymentMethod other = new PaymentMethod("OTHER", new BigDecimal("0"), new BigDecimal("1000"));
+        MethodRegistry registry = new MethodRegistry(List.of(card, other));
+        LocalSearchPaymentOptimizer optimizer = new LocalSearchPaymentOptimizer(1_000, Duration.ofSeconds(5), 1L);
+
+        long[] greedy = new FixedPointPaymentOptimizer().optimize(List.of(small, large), registry);
+        MetricsRecorder metrics = new MetricsRecorder();
+        long[] improved = optimizer.optimize(List.of(small, large), registry.newLedger(), metrics).getUsed();
+
+        assertArrayEquals(new long[]{9000, 5500}, greedy);
+        assertEquals(500, metrics.finish(registry, improved).getCounter(Counter.DISCOUNT_GAINED));
+        assertArrayEquals(new long[]{9000, 5000}, improved);
+    }
+
+    @Test
+    void testZeroBudgetKeepsGreedyResult() throws WarningException {
+        Order o1 = new Order("o1", new BigDecimal("100"), List.of("CARD"));
+        PaymentMethod punkty = new PaymentMethod("PUNKTY", new BigDecimal("15"), new BigDecimal("50"));
+        PaymentMethod card = new PaymentMethod("CARD", new BigDecimal("10"), new BigDecimal("100"));
+        MethodRegistry registry = new MethodRegistry(List.of(punkty, card));
+        LocalSearchPaymentOptimizer optimizer = new LocalSearchPaymentOptimizer(0, Duration.ZERO, 1L);
+
+        MetricsRecorder metrics = new MetricsRecorder();
+        long[] used = optimizer.optimize(List.of(o1), registry.newLedger(), metrics).getUsed();
+
+        assertArrayEquals(new FixedPointPaymentOptimizer().optimize(List.of(o1), registry), used);
+        assertEquals(0, metrics.finish(registry, used).getCounter(Counter.DISCOUNT_GAINED));
+    }
+}
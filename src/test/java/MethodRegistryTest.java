@@ -0,0 +1,47 @@
+import org.junit.jupiter.api.Test;
+import pl.edu.agh.algorithm.MethodRegistry;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.model.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MethodRegistryTest {
+
+    @Test
+    void testLookupByIdAndIndex() throws WarningException {
+        PaymentMethod punkty = new PaymentMethod("PUNKTY", new BigDecimal("15"), new BigDecimal("100"));
+        PaymentMethod card = new PaymentMethod("mZysk", new BigDecimal("10"), new BigDecimal("180"));
+        MethodRegistry registry = new MethodRegistry(List.of(punkty, card));
+
+        assertEquals(2, registry.size());
+        assertEquals(1, registry.indexOf("mZysk"));
+        assertEquals(-1, registry.indexOf("unknown"));
+        assertSame(card, registry.get(1));
+        assertSame(card, registry.find("mZysk"));
+        assertNull(registry.find("unknown"));
+        assertSame(punkty, registry.getPointsMethod());
+        assertEquals(0, registry.getPointsIndex());
+    }
+
+    @Test
+    void testRatesAreCachedWithSixDecimals() throws WarningException {
+        PaymentMethod card = new PaymentMethod("CARD", new BigDecimal("7.5"), new BigDecimal("10"));
+        MethodRegistry registry = new MethodRegistry(List.of(card));
+
+        assertEquals(new BigDecimal("0.075000"), registry.getRate(0));
+        assertEquals(-1, registry.getPointsIndex());
+    }
+
+    @Test
+    void testDuplicateIdResolvesToFirstEntry() throws WarningException {
+        PaymentMethod first = new PaymentMethod("CARD", new BigDecimal("5"), new BigDecimal("10"));
+        PaymentMethod second = new PaymentMethod("CARD", new BigDecimal("8"), new BigDecimal("20"));
+        MethodRegistry registry = new MethodRegistry(List.of(first, second));
+
+        assertSame(first, registry.find("CARD"));
+        assertSame(second, registry.get(1));
+    }
+}
@@ -0,0 +1,73 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import pl.edu.agh.algorithm.FixedPointPaymentOptimizer;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.model.PaymentMethod;
+import pl.edu.agh.server.OptimizationServer;
+
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimizationServerTest {
+
+    private OptimizationServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void startServer() throws Exception {
+        List<PaymentMethod> catalog = List.of(
+                new PaymentMethod("PUNKTY", new BigDecimal("15"), new BigDecimal("100.00")),
+                new PaymentMethod("mZysk", new BigDecimal("10"), new BigDecimal("180.00")),
+                new PaymentMethod("BosBankrut", new BigDecimal("5"), new BigDecimal("200.00")));
+        server = new OptimizationServer(catalog, new FixedPointPaymentOptimizer());
+        server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void testRepeatedRequestsSeeFreshLimits() throws Exception {
+        String orders = "["
+                + "{\"id\": \"ORDER1\", \"value\": \"100.00\", \"promotions\": [\"mZysk\"]},"
+                + "{\"id\": \"ORDER2\", \"value\": \"200.00\", \"promotions\": [\"BosBankrut\"]},"
+                + "{\"id\": \"ORDER3\", \"value\": \"150.00\", \"promotions\": [\"mZysk\", \"BosBankrut\"]},"
+                + "{\"id\": \"ORDER4\", \"value\": \"50.00\"}"
+                + "]";
+        String expected = "[{\"id\":\"PUNKTY\",\"used\":100.00},{\"id\":\"mZysk\",\"used\":180.00},"
+                + "{\"id\":\"BosBankrut\",\"used\":170.00}]";
+
+        for (int i = 0; i < 3; i++) {
+            HttpResponse<String> response = post(orders);
+            assertEquals(200, response.statusCode());
+            assertEquals(expected, response.body());
+        }
+    }
+
+    @Test
+    void testInvalidBodyIsRejected() throws Exception {
+        HttpResponse<String> response = post("{ not json");
+
+        assertEquals(400, response.statusCode());
+        assertTrue(response.body().contains("error"));
+    }
+
+    private HttpResponse<String> post(String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/optimize"))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,107 @@
+import org.junit.jupiter.api.Test;
+import pl.edu.agh.algorithm.FixedPointPaymentOptimizer;
+import pl.edu.agh.algorithm.MethodRegistry;
+import pl.edu.agh.algorithm.OptimizationSession;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimizationSessionTest {
+
+    @Test
+    void testDeltasRepairAffectedOrders() throws WarningException {
+        PaymentMethod card = new PaymentMethod("CARD", new BigDecimal("10"), new BigDecimal("100"));
+        PaymentMethod other = new PaymentMethod("OTHER", new BigDecimal("0"), new BigDecimal("1000"));
+        MethodRegistry registry = new MethodRegistry(List.of(card, other));
+        Order a = new Order("A", new BigDecimal("100"), List.of("CARD"));
+        Order b = new Order("B", new BigDecimal("100"), List.of("CARD"));
+
+        OptimizationSession session = new OptimizationSession(List.of(a, b), registry);
+        assertArrayEquals(new long[]{10000, 9000}, session.getUsed());
+
+        assertEquals(Map.of("CARD", new BigDecimal("90.00"), "OTHER", new BigDecimal("0.00")), session.removeOrder("A"));
+        assertEquals(Map.of("CARD", new BigDecimal("50.00"), "OTHER", new BigDecimal("50.00")),
+                session.changeLimit("CARD", new BigDecimal("50")));
+        assertEquals(Map.of("OTHER", new BigDecimal("70.00")),
+                session.addOrder(new Order("C", new BigDecimal("20"), List.of("CARD"))));
+        assertEquals(2, session.size());
+        assertEquals(0, session.getUnpaid());
+    }
+
+    @Test
+    void testRejectsUnknownAndDuplicateIds() throws WarningException {
+        PaymentMethod card = new PaymentMethod("CARD", new BigDecimal("10"), new BigDecimal("100"));
+        Order a = new Order("A", new BigDecimal("100"), List.of("CARD"));
+        OptimizationSession session = new OptimizationSession(List.of(a), new MethodRegistry(List.of(card)));
+
+        assertThrows(WarningException.class, () -> session.addOrder(a));
+        assertThrows(WarningException.class, () -> session.removeOrder("missing"));
+        assertThrows(WarningException.class, () -> session.changeLimit("missing", BigDecimal.ONE));
+        assertThrows(WarningException.class, () -> session.changeLimit("CARD", new BigDecimal("-1")));
+        assertThrows(WarningException.class, () -> new OptimizationSession(List.of(a, a), new MethodRegistry(List.of(card))));
+    }
+
+    @Test
+    void testOpensWithGreedyAndStaysWithinLimits() throws WarningException {
+        Random random = new Random(11);
+        for (int round = 0; round < 100; round++) {
+            int methodCount = 2 + random.nextInt(5);
+            List<PaymentMethod> methods = new ArrayList<>();
+            methods.add(new PaymentMethod("PUNKTY", BigDecimal.valueOf(random.nextInt(30)),
+                    BigDecimal.valueOf(random.nextInt(50_000), 2)));
+            for (int j = 1; j < methodCount; j++) {
+                methods.add(new PaymentMethod("CARD" + j, BigDecimal.valueOf(random.nextInt(250), 1),
+                        BigDecimal.valueOf(random.nextInt(300_000), 2)));
+            }
+            List<Order> orders = new ArrayList<>();
+            int orderCount = 1 + random.nextInt(60);
+            for (int i = 0; i < orderCount; i++) {
+                orders.add(randomOrder(random, "ORDER" + i, methodCount));
+            }
+            MethodRegistry registry = new MethodRegistry(methods);
+            OptimizationSession session = new OptimizationSession(orders, registry);
+            assertArrayEquals(new FixedPointPaymentOptimizer().optimize(orders, registry), session.getUsed());
+
+            long[] limits = new long[methodCount];
+            for (int j = 0; j < methodCount; j++) limits[j] = registry.getLimit(j);
+            List<String> live = new ArrayList<>(orders.stream().map(Order::getId).toList());
+            for (int step = 0; step < 40; step++) {
+                long[] before = session.getUsed();
+                Map<String, BigDecimal> changed;
+                int kind = random.nextInt(3);
+                if (kind == 0) {
+                    String id = "NEW" + step;
+                    live.add(id);
+                    changed = session.addOrder(randomOrder(random, id, methodCount));
+                } else if (kind == 1 && !live.isEmpty()) {
+                    changed = session.removeOrder(live.remove(random.nextInt(live.size())));
+                } else {
+                    int j = random.nextInt(methodCount);
+                    limits[j] = random.nextInt(300_000);
+                    changed = session.changeLimit(registry.getId(j), BigDecimal.valueOf(limits[j], 2));
+                }
+                long[] after = session.getUsed();
+                for (int j = 0; j < methodCount; j++) {
+                    assertTrue(after[j] >= 0 && after[j] <= limits[j]);
+                    assertEquals(after[j] != before[j], changed.containsKey(registry.getId(j)));
+                }
+            }
+        }
+    }
+
+    private static Order randomOrder(Random random, String id, int methodCount) throws WarningException {
+        List<String> promos = new ArrayList<>();
+        for (int j = 1; j < methodCount; j++) {
+            if (random.nextBoolean()) promos.add("CARD" + j);
+        }
+        return new Order(id, BigDecimal.valueOf(1 + random.nextInt(40_000), 2), promos.isEmpty() ? null : promos);
+    }
+}
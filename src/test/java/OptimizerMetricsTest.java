@@ -0,0 +1,104 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import pl.edu.agh.algorithm.FixedPointPaymentOptimizer;
+import pl.edu.agh.algorithm.GreedyPaymentOptimizer;
+import pl.edu.agh.algorithm.MethodRegistry;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.metrics.Counter;
+import pl.edu.agh.metrics.JmxMetricsSink;
+import pl.edu.agh.metrics.JsonMetricsSink;
+import pl.edu.agh.metrics.MetricsRecorder;
+import pl.edu.agh.metrics.Phase;
+import pl.edu.agh.metrics.RunMetrics;
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimizerMetricsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testBothEnginesReportTheSameCounters() throws WarningException {
+        List<Order> orders = orders();
+        MethodRegistry registry = new MethodRegistry(methods());
+        MetricsRecorder fixed = new MetricsRecorder();
+        long[] used = new FixedPointPaymentOptimizer().optimize(orders, registry.newLedger(), fixed).getUsed();
+        RunMetrics fixedRun = fixed.finish(registry, used);
+
+        List<PaymentMethod> methods = methods();
+        MetricsRecorder greedy = new MetricsRecorder();
+        new GreedyPaymentOptimizer().optimize(orders, new MethodRegistry(methods), greedy);
+        RunMetrics greedyRun = greedy.finish(methods);
+
+        for (Counter counter : Counter.values()) {
+            assertEquals(greedyRun.getCounter(counter), fixedRun.getCounter(counter), counter.name());
+        }
+        assertEquals(2 * 11, fixedRun.getCounter(Counter.OPTIONS_GENERATED));
+        assertTrue(fixedRun.getCounter(Counter.OPTIONS_REJECTED) > 0);
+        assertEquals(1.0, fixedRun.getMethods().get(1).getUtilisation());
+        assertEquals(0, greedyRun.getMethods().get(1).getUsed().compareTo(new BigDecimal("90")));
+    }
+
+    @Test
+    void testDisabledRecorderStaysEmpty() throws WarningException {
+        MethodRegistry registry = new MethodRegistry(methods());
+        new FixedPointPaymentOptimizer().optimize(orders(), registry.newLedger(), MetricsRecorder.DISABLED);
+
+        RunMetrics run = MetricsRecorder.DISABLED.finish(registry, new long[registry.size()]);
+        assertEquals(0, run.getCounter(Counter.OPTIONS_GENERATED));
+        assertEquals(0, run.getPhaseNanos(Phase.GENERATE));
+    }
+
+    @Test
+    void testSinksPublishRuns() throws Exception {
+        MethodRegistry registry = new MethodRegistry(methods());
+        MetricsRecorder recorder = new MetricsRecorder();
+        long[] used = new FixedPointPaymentOptimizer().optimize(orders(), registry.newLedger(), recorder).getUsed();
+        RunMetrics run = recorder.finish(registry, used);
+
+        Path file = tempDir.resolve("metrics.json");
+        JsonMetricsSink json = new JsonMetricsSink(file);
+        json.record(run);
+        json.record(run);
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        JsonNode node = new ObjectMapper().readTree(lines.get(0));
+        assertEquals(22, node.get("counters").get("OPTIONS_GENERATED").asLong());
+        assertEquals("CARD", node.get("methods").get(1).get("id").asText());
+
+        JmxMetricsSink jmx = new JmxMetricsSink();
+        jmx.register();
+        try {
+            jmx.record(run);
+            jmx.record(run);
+            assertEquals(2, jmx.getRuns());
+            assertEquals(Long.valueOf(44), jmx.getCounters().get("OPTIONS_GENERATED"));
+            assertEquals(Double.valueOf(1.0), jmx.getLastUtilisation().get("CARD"));
+        } finally {
+            jmx.unregister();
+        }
+    }
+
+    private static List<Order> orders() throws WarningException {
+        return List.of(
+                new Order("o1", new BigDecimal("100"), List.of("CARD")),
+                new Order("o2", new BigDecimal("100"), List.of("CARD")));
+    }
+
+    private static List<PaymentMethod> methods() throws WarningException {
+        return List.of(
+                new PaymentMethod("PUNKTY", new BigDecimal("5"), new BigDecimal("10")),
+                new PaymentMethod("CARD", new BigDecimal("10"), new BigDecimal("90")));
+    }
+}
@@ -0,0 +1,100 @@
+import org.junit.jupiter.api.Test;
+import pl.edu.agh.algorithm.AllocationPolicy;
+import pl.edu.agh.algorithm.FixedPointPaymentOptimizer;
+import pl.edu.agh.algorithm.MethodRegistry;
+import pl.edu.agh.algorithm.OptionCache;
+import pl.edu.agh.algorithm.PointsSplit;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.metrics.Counter;
+import pl.edu.agh.metrics.MetricsRecorder;
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptionCacheTest {
+
+    @Test
+    void testCachedRunsMatchUncachedOptimizer() throws WarningException {
+        Random random = new Random(3);
+        for (PointsSplit split : List.of(PointsSplit.DEFAULT, PointsSplit.minimal())) {
+            OptionCache cache = new OptionCache(500);
+            FixedPointPaymentOptimizer cached = new FixedPointPaymentOptimizer(null, AllocationPolicy.CATALOG_ORDER, split, cache);
+            FixedPointPaymentOptimizer plain = new FixedPointPaymentOptimizer(null, AllocationPolicy.CATALOG_ORDER, split);
+            List<Order> orders = new ArrayList<>();
+            for (int round = 0; round < 50; round++) {
+                // keep most of the previous run's orders and replace a few
+                for (int k = 0; k < 5 && !orders.isEmpty(); k++) orders.remove(random.nextInt(orders.size()));
+                for (int k = 0; k < 10; k++) orders.add(Fixtures.order(random, "ORDER" + (round * 10 + k), 3));
+                MethodRegistry registry = new MethodRegistry(Fixtures.methods(new Random(round % 3), 3));
+
+                assertArrayEquals(plain.optimize(orders, registry), cached.optimize(orders, registry));
+            }
+            assertTrue(cache.getHits() > cache.getMisses());
+        }
+    }
+
+    @Test
+    void testHitsMissesAndEviction() throws WarningException {
+        OptionCache cache = new OptionCache(3);
+        FixedPointPaymentOptimizer optimizer = new FixedPointPaymentOptimizer(null, AllocationPolicy.CATALOG_ORDER,
+                PointsSplit.DEFAULT, cache);
+        MethodRegistry registry = new MethodRegistry(Fixtures.methods(new Random(1), 3));
+        List<Order> orders = List.of(
+                new Order("o1", new BigDecimal("10"), List.of("CARD1")),
+                new Order("o2", new BigDecimal("20"), null),
+                new Order("o3", new BigDecimal("30"), List.of("CARD2")));
+
+        optimizer.optimize(orders, registry);
+        assertEquals(0, cache.getHits());
+        assertEquals(3, cache.getMisses());
+
+        MetricsRecorder metrics = new MetricsRecorder();
+        long[] used = optimizer.optimize(List.of(orders.get(0), new Order("o2", new BigDecimal("21"), null)),
+                registry.newLedger(), metrics).getUsed();
+        assertEquals(1, metrics.finish(registry, used).getCounter(Counter.CACHE_HITS));
+        assertEquals(1, metrics.finish(registry, used).getCounter(Counter.CACHE_MISSES));
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictions());
+
+        // a changed catalog never reuses options generated for another one
+        optimizer.optimize(List.of(orders.get(0)), new MethodRegistry(Fixtures.methods(new Random(2), 3)));
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void testLeastRecentlyUsedCatalogIsEvictedWithItsEntries() throws WarningException {
+        OptionCache cache = new OptionCache(1_000);
+        FixedPointPaymentOptimizer optimizer = new FixedPointPaymentOptimizer(null, AllocationPolicy.CATALOG_ORDER,
+                PointsSplit.DEFAULT, cache);
+        List<Order> orders = List.of(
+                new Order("o1", new BigDecimal("10"), List.of("CARD1")),
+                new Order("o2", new BigDecimal("20"), null));
+
+        // 64 catalogs that differ only in the points rate fill the catalog table
+        for (int discount = 0; discount < 64; discount++) {
+            optimizer.optimize(discount == 0 ? orders : orders.subList(0, 1), catalog(discount));
+        }
+        assertEquals(65, cache.size());
+        optimizer.optimize(orders, catalog(0));
+        assertEquals(2, cache.getHits());
+
+        // catalog 1 is now the least recently used, so the 65th catalog pushes it out along with its entry
+        optimizer.optimize(orders.subList(0, 1), catalog(64));
+        assertEquals(65, cache.size());
+        assertEquals(1, cache.getEvictions());
+        optimizer.optimize(orders, catalog(0));
+        assertEquals(4, cache.getHits());
+    }
+
+    private static MethodRegistry catalog(int pointsDiscount) throws WarningException {
+        return new MethodRegistry(List.of(
+                new PaymentMethod("PUNKTY", BigDecimal.valueOf(pointsDiscount), new BigDecimal("100")),
+                new PaymentMethod("CARD1", new BigDecimal("10"), new BigDecimal("100"))));
+    }
+}
@@ -4,12 +4,15 @@ import org.junit.jupiter.api.io.TempDir;
 import pl.edu.agh.exception.ErrorException;
 import pl.edu.agh.exception.WarningException;
 import pl.edu.agh.factory.OrderFactory;
+import pl.edu.agh.factory.RejectReason;
+import pl.edu.agh.factory.RejectReport;
 import pl.edu.agh.model.Order;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -124,4 +127,53 @@ class OrderFactoryTest {
         assertEquals(1, orders.size());
         assertEquals(List.of("PROMO"), orders.get(0).getPromotions());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testForEachStreamsOrdersInFileOrder() throws Exception {
+        String json = "["
+                + "{ \"id\": \"first\", \"value\": \"10\" },"
+                + "{ \"id\": \"skipped\" },"
+                + "{ \"id\": \"second\", \"value\": \"20\", \"promotions\": [\"PROMO\"] }"
+                + "]";
+        Path file = tempDir.resolve("orders_stream.json");
+        Files.writeString(file, json);
+
+        List<String> ids = new ArrayList<>();
+        OrderFactory.forEach(file, order -> ids.add(order.getId()));
+
+        assertEquals(List.of("first", "second"), ids);
+    }
+
+    @Test
+    void testRejectReportCountsReasonsAndKeepsBoundedSamples() throws Exception {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 50; i++) {
+            json.append("{ \"id\": \"bad").append(i).append("\", \"value\": \"1,5\" },");
+        }
+        json.append("{ \"value\": \"10\" },")
+                .append("{ \"id\": \" \", \"value\": \"10\" },")
+                .append("{ \"id\": \"negative\", \"value\": \"-3\" },")
+                .append("{ \"id\": \"zero\", \"value\": 0 },")
+                .append("{ \"id\": \"exp\", \"value\": \"1.5E1\", \"promotions\": [\"P\", 7] }")
+                .append("]");
+        Path file = tempDir.resolve("orders_dirty.json");
+        Files.writeString(file, json.toString());
+
+        RejectReport report = new RejectReport("orders_dirty.json", 3, false);
+        List<Order> orders = OrderFactory.fromJson(file, report);
+
+        assertEquals(1, orders.size());
+        assertEquals(new BigDecimal("15"), orders.get(0).getValue());
+        assertEquals(List.of("P"), orders.get(0).getPromotions());
+        assertEquals(50, report.getCount(RejectReason.INVALID_NUMBER));
+        assertEquals(1, report.getCount(RejectReason.MISSING_FIELD));
+        assertEquals(1, report.getCount(RejectReason.EMPTY_ID));
+        assertEquals(2, report.getCount(RejectReason.NON_POSITIVE_VALUE));
+        assertEquals(1, report.getCount(RejectReason.INVALID_PROMOTION));
+        assertEquals(55, report.getTotal());
+        assertEquals(3 + 1 + 1 + 2 + 1, report.getSamples().size());
+        assertEquals(2, report.getSamples().get(2).getRecord());
+        assertEquals("orders_dirty.json: 55 rejected (MISSING_FIELD=1, INVALID_NUMBER=50, EMPTY_ID=1, "
+                + "NON_POSITIVE_VALUE=2, INVALID_PROMOTION=1)", report.summary());
+    }
+}
@@ -0,0 +1,99 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import pl.edu.agh.exception.ErrorException;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.factory.OrderFactory;
+import pl.edu.agh.factory.OrderSnapshot;
+import pl.edu.agh.model.Order;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTripThroughJson() throws Exception {
+        String json = "["
+                + "{\"id\": \"order1\", \"value\": \"100.50\", \"promotions\": [\"mZysk\", \"BosBankrut\"]},"
+                + "{\"id\": \"zamówienie2\", \"value\": \"200\"},"
+                + "{\"id\": \"order3\", \"value\": \"0.01\", \"promotions\": [\"mZysk\", \"BosBankrut\"]}"
+                + "]";
+        Path jsonFile = tempDir.resolve("orders.json");
+        Path binFile = tempDir.resolve("orders.bin");
+        Files.writeString(jsonFile, json);
+
+        List<Order> parsed = OrderFactory.fromJson(jsonFile);
+        OrderSnapshot.write(parsed, binFile);
+        assertTrue(OrderSnapshot.isSnapshot(binFile));
+        assertFalse(OrderSnapshot.isSnapshot(jsonFile));
+
+        OrderSnapshot snapshot = OrderSnapshot.open(binFile);
+        assertEquals(3, snapshot.size());
+        assertEquals(List.of("mZysk", "BosBankrut"), snapshot.getDictionary());
+        assertEquals(10050, snapshot.getValueMinor(0));
+        assertEquals("zamówienie2", snapshot.getId(1));
+        assertNull(snapshot.getPromotions(1));
+        assertEquals(0, snapshot.getPromotionCount(1));
+        assertSame(snapshot.getPromotions(0), snapshot.getPromotions(2));
+        assertEquals(1, snapshot.getPromotionIndex(2, 1));
+
+        List<Order> loaded = OrderFactory.fromSnapshot(binFile);
+        for (int i = 0; i < parsed.size(); i++) {
+            assertEquals(parsed.get(i).getId(), loaded.get(i).getId());
+            assertEquals(0, parsed.get(i).getValue().compareTo(loaded.get(i).getValue()));
+            assertEquals(parsed.get(i).getPromotions(), loaded.get(i).getPromotions());
+        }
+    }
+
+    @Test
+    void testRejectsValuesBeyondMinorUnits() throws WarningException {
+        List<Order> orders = List.of(new Order("o1", new BigDecimal("1.005"), null));
+
+        assertThrows(WarningException.class, () -> OrderSnapshot.write(orders, tempDir.resolve("orders.bin")));
+    }
+
+    @Test
+    void testRejectsForeignAndTruncatedFiles() throws Exception {
+        Path foreign = tempDir.resolve("foreign.bin");
+        Files.write(foreign, new byte[64]);
+        assertThrows(WarningException.class, () -> OrderSnapshot.open(foreign));
+
+        Path file = tempDir.resolve("orders.bin");
+        OrderSnapshot.write(List.of(new Order("o1", new BigDecimal("10"), List.of("CARD"))), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Path truncated = tempDir.resolve("truncated.bin");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(ErrorException.class, () -> OrderSnapshot.open(truncated));
+    }
+
+    @Test
+    void testRejectsOffsetsOutsideTheirSections() throws Exception {
+        Path file = tempDir.resolve("orders.bin");
+        OrderSnapshot.write(List.of(new Order("o1", new BigDecimal("10"), List.of("CARD"))), file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        // one order: idStart at 40, listOf at 48, listStart at 52, members at 60
+        byte[] badId = bytes.clone();
+        ByteBuffer.wrap(badId).order(ByteOrder.LITTLE_ENDIAN).putInt(44, 1_000);
+        Path badIdFile = tempDir.resolve("bad-id.bin");
+        Files.write(badIdFile, badId);
+        assertThrows(ErrorException.class, () -> OrderSnapshot.open(badIdFile));
+
+        byte[] badMember = bytes.clone();
+        ByteBuffer.wrap(badMember).order(ByteOrder.LITTLE_ENDIAN).putInt(60, 7);
+        Path badMemberFile = tempDir.resolve("bad-member.bin");
+        Files.write(badMemberFile, badMember);
+        assertThrows(ErrorException.class, () -> OrderSnapshot.open(badMemberFile));
+    }
+}
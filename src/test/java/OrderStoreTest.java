@@ -0,0 +1,68 @@
+import org.junit.jupiter.api.Test;
+import pl.edu.agh.algorithm.GreedyPaymentOptimizer;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.OrderStore;
+import pl.edu.agh.model.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderStoreTest {
+
+    @Test
+    void testViewsReadThroughColumns() throws WarningException {
+        OrderStore store = OrderStore.of(List.of(
+                new Order("ORDER1", new BigDecimal("100.5"), List.of("mZysk", "BosBankrut")),
+                new Order("ORDER2", new BigDecimal("200"), null),
+                new Order("ORDER3", new BigDecimal("0.01"), List.of("BosBankrut"))));
+
+        assertEquals(3, store.size());
+        assertEquals(2, store.getCodeCount());
+        assertEquals(10050, store.getValueMinor(0));
+        assertEquals(store.getPromotionCode(0, 1), store.getPromotionCode(2, 0));
+
+        Order view = store.get(0);
+        assertEquals("ORDER1", view.getId());
+        assertEquals(new BigDecimal("100.50"), view.getValue());
+        assertEquals(List.of("mZysk", "BosBankrut"), view.getPromotions());
+        assertNull(store.asList().get(1).getPromotions());
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(3));
+    }
+
+    @Test
+    void testRejectsWhatOrderRejects() {
+        OrderStore store = new OrderStore();
+
+        assertThrows(WarningException.class, () -> store.add(" ", 100, null));
+        assertThrows(WarningException.class, () -> store.add("o1", 0, null));
+        assertThrows(WarningException.class, () -> store.add(new Order("o1", new BigDecimal("1.005"), null)));
+    }
+
+    @Test
+    void testGreedyGivesSameResultOnViews() throws WarningException {
+        List<Order> orders = List.of(
+                new Order("ORDER1", new BigDecimal("100.00"), List.of("mZysk")),
+                new Order("ORDER2", new BigDecimal("200.00"), List.of("BosBankrut")),
+                new Order("ORDER3", new BigDecimal("150.00"), List.of("mZysk", "BosBankrut")),
+                new Order("ORDER4", new BigDecimal("50.00"), null));
+
+        List<PaymentMethod> direct = methods();
+        List<PaymentMethod> viaStore = methods();
+        new GreedyPaymentOptimizer().optimizePayments(orders, direct);
+        new GreedyPaymentOptimizer().optimizePayments(OrderStore.of(orders).asList(), viaStore);
+
+        for (int i = 0; i < direct.size(); i++) {
+            assertEquals(0, direct.get(i).getRemaining().compareTo(viaStore.get(i).getRemaining()));
+        }
+    }
+
+    private static List<PaymentMethod> methods() throws WarningException {
+        return List.of(
+                new PaymentMethod("PUNKTY", new BigDecimal("15"), new BigDecimal("100.00")),
+                new PaymentMethod("mZysk", new BigDecimal("10"), new BigDecimal("180.00")),
+                new PaymentMethod("BosBankrut", new BigDecimal("5"), new BigDecimal("200.00")));
+    }
+}
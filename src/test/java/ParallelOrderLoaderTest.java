@@ -0,0 +1,117 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import pl.edu.agh.exception.ErrorException;
+import pl.edu.agh.factory.OrderFactory;
+import pl.edu.agh.factory.ParallelOrderLoader;
+import pl.edu.agh.factory.RejectReason;
+import pl.edu.agh.factory.RejectReport;
+import pl.edu.agh.model.Order;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelOrderLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testMatchesSequentialOnLargeDirtyFile() throws Exception {
+        Path file = tempDir.resolve("orders.json");
+        Files.writeString(file, "\uFEFF  \n" + ordersJson(new Random(3), 60_000, true, ""));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            RejectReport sequentialReport = new RejectReport("orders.json", 5, false);
+            List<Order> sequential = OrderFactory.fromJson(file, sequentialReport);
+            RejectReport parallelReport = new RejectReport("orders.json", 5, false);
+            List<Order> parallel = ParallelOrderLoader.fromJson(file, executor, parallelReport);
+
+            assertTrue(sequential.size() > 50_000);
+            assertEquals(sequential.size(), parallel.size());
+            for (int i = 0; i < sequential.size(); i++) {
+                Order expected = sequential.get(i);
+                Order actual = parallel.get(i);
+                assertEquals(expected.getId(), actual.getId());
+                assertEquals(expected.getValue(), actual.getValue());
+                assertEquals(expected.getPromotions(), actual.getPromotions());
+            }
+            for (RejectReason reason : RejectReason.values()) {
+                assertEquals(sequentialReport.getCount(reason), parallelReport.getCount(reason));
+            }
+            assertTrue(sequentialReport.getTotal() > 1000);
+            assertEquals(sequentialReport.getSamples().size(), parallelReport.getSamples().size());
+            for (int i = 0; i < sequentialReport.getSamples().size(); i++) {
+                RejectReport.Sample expected = sequentialReport.getSamples().get(i);
+                RejectReport.Sample actual = parallelReport.getSamples().get(i);
+                assertEquals(expected.getReason(), actual.getReason());
+                assertEquals(expected.getRecord(), actual.getRecord());
+                assertEquals(expected.getDetail(), actual.getDetail());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testMalformedEntryNearTheEndThrowsErrorException() throws Exception {
+        Path file = tempDir.resolve("broken.json");
+        Files.writeString(file, ordersJson(new Random(7), 40_000, false, "{\"id\": \"x\", \"value\": tru},"));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            assertThrows(ErrorException.class, () -> OrderFactory.fromJson(file));
+            ErrorException ex = assertThrows(ErrorException.class, () -> ParallelOrderLoader.fromJson(file, executor));
+            assertTrue(ex.getMessage().contains("Invalid JSON in orders file"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSmallFileFallsBackToSequential() throws Exception {
+        Path small = tempDir.resolve("small.json");
+        Files.writeString(small, "[{\"id\": \"a\", \"value\": \"10.00\"}, {\"id\": \"b\", \"value\": \"-1\"}]");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Order> orders = ParallelOrderLoader.fromJson(small, executor);
+            assertEquals(1, orders.size());
+            assertEquals("a", orders.get(0).getId());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Entries with ids that contain brackets, commas, quotes and escapes; dirty ones are skipped by the factories.
+    private static String ordersJson(Random random, int count, boolean dirty, String tail) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(random.nextBoolean() ? ",\n" : " , ");
+            if (i == count - 10) sb.append(tail);
+            int kind = dirty ? random.nextInt(40) : 0;
+            String id = "ORDER" + i + switch (random.nextInt(6)) {
+                case 0 -> "[,]";
+                case 1 -> "\\\"},{\\\"";
+                case 2 -> "\\\\";
+                case 3 -> "\\u005d,";
+                default -> "";
+            };
+            switch (kind) {
+                case 1 -> sb.append("{\"value\": \"1.00\"}");
+                case 2 -> sb.append("{\"id\": \"").append(id).append("\", \"value\": \"1,5\"}");
+                case 3 -> sb.append("{\"id\": \"").append(id).append("\", \"value\": \"0\"}");
+                case 4 -> sb.append("{\"id\": \"").append(id).append("\", \"value\": \"5\", \"promotions\": [1, \"mZysk\"]}");
+                case 5 -> sb.append("[1, {\"id\": \"nested\"}]");
+                default -> sb.append("{\"id\": \"").append(id).append("\", \"value\": \"")
+                        .append(1 + random.nextInt(100_000)).append('.').append(random.nextInt(10)).append(random.nextInt(10))
+                        .append("\", \"promotions\": [\"mZysk\", \"BosBankrut\"], \"note\": {\"a\": [\"]\", \"{\"]}}");
+            }
+        }
+        return sb.append("]\n").toString();
+    }
+}
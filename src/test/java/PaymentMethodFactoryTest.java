@@ -4,6 +4,8 @@ import org.junit.jupiter.api.io.TempDir;
 import pl.edu.agh.exception.ErrorException;
 import pl.edu.agh.exception.WarningException;
 import pl.edu.agh.factory.PaymentMethodFactory;
+import pl.edu.agh.factory.RejectReason;
+import pl.edu.agh.factory.RejectReport;
 import pl.edu.agh.model.PaymentMethod;
 
 import java.io.IOException;
@@ -117,4 +119,23 @@ class PaymentMethodFactoryTest {
         WarningException ex = assertThrows(WarningException.class, () -> PaymentMethodFactory.fromJson(file));
         assertTrue(ex.getMessage().startsWith("No valid payment methods loaded"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testNegativeAmountsAreRejectedWithoutAborting() throws Exception {
+        String json = "["
+                + "{ \"id\": \"minus\", \"discount\": \"-5\", \"limit\": \"50\" },"
+                + "{ \"id\": \"overdrawn\", \"discount\": \"5\", \"limit\": \"-1\" },"
+                + "{ \"id\": \"good\", \"discount\": \"10\", \"limit\": \"150\" }"
+                + "]";
+        Path file = tempDir.resolve("negative.json");
+        Files.writeString(file, json);
+
+        RejectReport report = new RejectReport("negative.json");
+        List<PaymentMethod> methods = PaymentMethodFactory.fromJson(file, report);
+
+        assertEquals(1, methods.size());
+        assertEquals(1, report.getCount(RejectReason.NEGATIVE_DISCOUNT));
+        assertEquals(1, report.getCount(RejectReason.NEGATIVE_LIMIT));
+        assertNull(PaymentMethod.tryCreate("x", BigDecimal.ONE, new BigDecimal("-1")));
+    }
+}
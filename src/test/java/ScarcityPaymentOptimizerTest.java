@@ -0,0 +1,92 @@
+import org.junit.jupiter.api.Test;
+import pl.edu.agh.algorithm.FixedPointPaymentOptimizer;
+import pl.edu.agh.algorithm.MethodRegistry;
+import pl.edu.agh.algorithm.ScarcityPaymentOptimizer;
+import pl.edu.agh.exception.WarningException;
+import pl.edu.agh.metrics.Counter;
+import pl.edu.agh.metrics.MetricsRecorder;
+import pl.edu.agh.model.Order;
+import pl.edu.agh.model.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScarcityPaymentOptimizerTest {
+
+    @Test
+    void testScarceCardGoesToOrderWithoutAlternative() throws WarningException {
+        // plain greedy ties on CARD_A and lets the first order take it; the second then pays without discount
+        Order flexible = new Order("flexible", new BigDecimal("50"), List.of("CARD_A", "CARD_B"));
+        Order bound = new Order("bound", new BigDecimal("100"), List.of("CARD_A"));
+        PaymentMethod cardA = new PaymentMethod("CARD_A", new BigDecimal("20"), new BigDecimal("80"));
+        PaymentMethod cardB = new PaymentMethod("CARD_B", new BigDecimal("15"), new BigDecimal("1000"));
+        MethodRegistry registry = new MethodRegistry(List.of(cardA, cardB));
+
+        long[] plain = new FixedPointPaymentOptimizer().optimize(List.of(flexible, bound), registry);
+        MetricsRecorder metrics = new MetricsRecorder();
+        long[] scarce = new ScarcityPaymentOptimizer().optimize(List.of(flexible, bound), registry.newLedger(), metrics)
+                .getUsed();
+
+        assertArrayEquals(new long[]{8000, 6000}, plain);
+        assertArrayEquals(new long[]{8000, 4250}, scarce);
+        assertEquals(1750, metrics.finish(registry, scarce).getCounter(Counter.DISCOUNT_GAINED));
+    }
+
+    @Test
+    void testUncontendedCardBeatsPartialPoints() throws WarningException {
+        // partial points have the best density (10.00 for 10.00), but the card gives 20.00 and has limit to spare
+        Order order = new Order("order", new BigDecimal("100"), List.of("CARD"));
+        PaymentMethod punkty = new PaymentMethod("PUNKTY", new BigDecimal("15"), new BigDecimal("1000"));
+        PaymentMethod card = new PaymentMethod("CARD", new BigDecimal("20"), new BigDecimal("1000"));
+        MethodRegistry registry = new MethodRegistry(List.of(punkty, card));
+
+        MetricsRecorder metrics = new MetricsRecorder();
+        long[] scarce = new ScarcityPaymentOptimizer().optimize(List.of(order), registry.newLedger(), metrics).getUsed();
+
+        assertArrayEquals(new long[]{9000, 0}, new FixedPointPaymentOptimizer().optimize(List.of(order), registry));
+        assertArrayEquals(new long[]{0, 8000}, scarce);
+        assertEquals(1000, metrics.finish(registry, scarce).getCounter(Counter.DISCOUNT_GAINED));
+    }
+
+    @Test
+    void testSinglePassIsPlainGreedy() throws WarningException {
+        Random random = new Random(1);
+        for (int round = 0; round < 20; round++) {
+            List<Order> orders = Fixtures.orders(random, 1 + random.nextInt(40), 4);
+            MethodRegistry registry = new MethodRegistry(Fixtures.methodsWithCash(random, 4));
+            assertArrayEquals(new FixedPointPaymentOptimizer().optimize(orders, registry),
+                    new ScarcityPaymentOptimizer(1).optimize(orders, registry));
+        }
+    }
+
+    @Test
+    void testNeverWorseThanPlainGreedy() throws WarningException {
+        Random random = new Random(11);
+        ScarcityPaymentOptimizer optimizer = new ScarcityPaymentOptimizer();
+        long totalGain = 0;
+        for (int round = 0; round < 200; round++) {
+            List<Order> orders = Fixtures.orders(random, 1 + random.nextInt(60), 4);
+            MethodRegistry registry = new MethodRegistry(Fixtures.methodsWithCash(random, 4));
+
+            long[] plain = new FixedPointPaymentOptimizer().optimize(orders, registry);
+            MetricsRecorder metrics = new MetricsRecorder();
+            long[] scarce = optimizer.optimize(orders, registry.newLedger(), metrics).getUsed();
+            long gain = metrics.finish(registry, scarce).getCounter(Counter.DISCOUNT_GAINED);
+
+            // the CASH method pays whatever is left, so every order is settled and less paid means more discount
+            long plainPaid = Arrays.stream(plain).sum();
+            long scarcePaid = Arrays.stream(scarce).sum();
+            assertEquals(plainPaid - gain, scarcePaid);
+            assertTrue(gain >= 0);
+            for (int m = 0; m < registry.size(); m++) {
+                assertTrue(scarce[m] <= registry.get(m).getLimit().movePointRight(2).longValueExact());
+            }
+            totalGain += gain;
+        }
+        assertTrue(totalGain > 0);
+    }
+}